@@ -1,6 +1,8 @@
 import controller.MenuController;
 import external.MockAuthenticationService;
 import external.MockEmailService;
+import model.FAQStoreConfig;
+import model.SearchConfig;
 import model.SharedContext;
 import org.json.simple.parser.ParseException;
 import view.TextUserInterface;
@@ -24,7 +26,9 @@ public class Main {
         // Initialize the application
         MockAuthenticationService authService = new MockAuthenticationService();
         MockEmailService emailService = new MockEmailService();
-        SharedContext sharedContext = new SharedContext();
+        SearchConfig searchConfig = SearchConfig.fromProperties(System.getProperties());
+        FAQStoreConfig faqStoreConfig = FAQStoreConfig.fromProperties(System.getProperties());
+        SharedContext sharedContext = new SharedContext(searchConfig, faqStoreConfig);
         TextUserInterface textUserInterface = new TextUserInterface();
         MenuController menuController = new MenuController(sharedContext, textUserInterface, authService, emailService);
         while (true) {
@@ -5,6 +5,11 @@ import external.EmailService;
 import model.*;
 import view.View;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -55,7 +60,12 @@ public class AdminStaffController extends StaffController {
         }
 
         Page newPage = new Page(title, content, isPrivate);
-        sharedContext.addPage(newPage);
+        try {
+            sharedContext.addPage(newPage);
+        } catch (IOException exception) {
+            view.displayException(exception);
+            return;
+        }
 
         // assert sharedContext.getPages().containsKey(title) : "New page should have been added";
 
@@ -70,6 +80,84 @@ public class AdminStaffController extends StaffController {
         }
     }
 
+    /**
+     * Imports many pages at once from a directory of txt files or from a manifest listing the title,
+     * path and visibility of each page. The pages are indexed in one batch, and a single email
+     * summarising the import is sent instead of one per page. If some of the pages already exist,
+     * the admin staff member is asked once whether to overwrite them.
+     */
+    public void importPages() {
+        String source = view.getInput("Enter the path of a page directory or manifest: ");
+        Path sourcePath = Paths.get(source);
+        PageImporter importer = new PageImporter();
+        List<Page> newPages;
+        try {
+            if (Files.isDirectory(sourcePath)) {
+                Boolean isPrivate = view.getYesNoInput("Should these pages be private? ");
+                newPages = importer.readDirectory(sourcePath, isPrivate);
+            } else {
+                newPages = importer.readManifest(sourcePath);
+            }
+        } catch (IOException exception) {
+            view.displayException(exception);
+            return;
+        }
+
+        for (String skipped : importer.getSkipped()) {
+            view.displayWarning("Skipped " + skipped);
+        }
+        if (newPages.isEmpty()) {
+            view.displayWarning("No pages to import from " + source);
+            return;
+        }
+
+        HashMap<String, Page> availablePages = sharedContext.getPages();
+        List<Page> existingPages = new ArrayList<>();
+        for (Page page : newPages) {
+            if (availablePages.containsKey(page.getTitle())) {
+                existingPages.add(page);
+            }
+        }
+        if (!existingPages.isEmpty()) {
+            Boolean overwrite = view.getYesNoInput(existingPages.size() + " of these pages already exist. Overwrite them?");
+            if (!overwrite) {
+                newPages.removeAll(existingPages);
+            }
+        }
+        if (newPages.isEmpty()) {
+            view.displayInfo("Cancelled importing pages");
+            return;
+        }
+
+        try {
+            sharedContext.addPages(newPages);
+        } catch (PageIndexingException exception) {
+            // The readable pages were imported, only they are reported below
+            view.displayException(exception);
+            newPages = new ArrayList<>(exception.getIndexedPages());
+            if (newPages.isEmpty()) {
+                return;
+            }
+        } catch (IOException exception) {
+            view.displayException(exception);
+            return;
+        }
+
+        // One summary email for the whole import
+        AuthenticatedUser currentUser = (AuthenticatedUser) sharedContext.getCurrentUser();
+        StringBuilder body = new StringBuilder("New pages added:");
+        for (Page page : newPages) {
+            body.append("\n").append(page.getTitle());
+        }
+        String summary = "Imported " + newPages.size() + " pages";
+        int status = emailService.sendEmail(currentUser.getEmail(), SharedContext.ADMIN_STAFF_EMAIL, summary, body.toString());
+        if (status == EmailService.STATUS_SUCCESS) {
+            view.displaySuccess(summary);
+        } else {
+            view.displayWarning(summary + " but failed to send email notification!");
+        }
+    }
+
 
     /**
      * Manages the Frequently Asked Questions (FAQ) section. Allows navigating through FAQ sections and sub-sections,
@@ -85,6 +173,11 @@ public class AdminStaffController extends StaffController {
         int optionNo = 0;
 
         while (!(currentSection == null && optionNo == -1)) {
+            // Q&As added in this menu publish a new FAQ snapshot, so the section is looked up in the latest one
+            faq = sharedContext.getFaq();
+            if (currentSection != null) {
+                currentSection = faq.getSection(currentSection.getTopicPath());
+            }
 
             if (currentSection == null) {
                 sections = faq.getSections();
@@ -94,7 +187,7 @@ public class AdminStaffController extends StaffController {
             } else {
                 sections = currentSection.getSubsections();
                 view.displayFAQSection(currentSection, currentUser instanceof Guest);
-                parent = currentSection.getParent();
+                parent = faq.getParent(currentSection);
 
                 if (parent == null) {
                     view.displayInfo("[-1] to return to the main FAQ menu");
@@ -119,7 +212,7 @@ public class AdminStaffController extends StaffController {
                     }
                     if (currentSection != null) {
                         if (optionNo == -1) {
-                            parent = currentSection.getParent();
+                            parent = faq.getParent(currentSection);
                             currentSection = parent;
                             optionNo = 0;
                         }
@@ -173,36 +266,26 @@ public class AdminStaffController extends StaffController {
                     view.displayWarning("Topic cannot be empty");
                 }
             } while (new_section_topic.isEmpty());
-            Boolean goodToAdd = true;
-
-            FAQSection newSection = new FAQSection(new_section_topic);
-            newSection.setParent(section);
-            if (section == null) {
-                for (FAQSection existingSection : faq.getSections()) {
-                    if (existingSection.getTopic().equals(new_section_topic)) {
+            // Topics are looked up by their path, so siblings are not scanned for a duplicate
+            FAQSection existingSection = faq.getSubsection(section, new_section_topic);
+            Boolean goodToAdd = existingSection == null;
+            if (goodToAdd) {
+                try {
+                    section = sharedContext.addFAQSection(section, new_section_topic);
+                } catch (IllegalArgumentException exception) {
+                    // Another admin staff member added the topic since it was looked up
                     goodToAdd = false;
-                    section = existingSection;
-                    break;
-                    }
-                }
-                if (goodToAdd) {
-                    faq.addSectionItems(newSection);
+                    section = sharedContext.getFaq().getSubsection(section, new_section_topic);
+                } catch (UncheckedIOException exception) {
+                    view.displayInfo("\033[H\033[2J");
+                    view.displayError("Failed to save new topic " + new_section_topic + ": " + exception.getMessage());
+                    return;
                 }
             } else {
-                for (FAQSection existingSection : section.getSubsections()) {
-                    if (existingSection.getTopic().equals(new_section_topic)) {
-                        goodToAdd = false;
-                        section = existingSection;
-                        break;
-                    }
-                }
-                if (goodToAdd) {
-                    section.addSubsection(newSection);
-                }
+                section = existingSection;
             }
 
             if (goodToAdd) {
-                section = newSection;
                 view.displayInfo("\033[H\033[2J");
                 view.displaySuccess(" New section " + new_section_topic + " added!");
                 view.displayDivider();
@@ -227,7 +310,12 @@ public class AdminStaffController extends StaffController {
         } while (question.isEmpty() || answer.isEmpty());
 
         
-        section.addItem(question, answer);
+        try {
+            section = sharedContext.addFAQItem(section, question, answer);
+        } catch (UncheckedIOException exception) {
+            view.displayError("Failed to save FAQ question: " + exception.getMessage());
+            return;
+        }
         String emailBody = String.format("The list of Q&A pair for subtopic: %s\n", section.getTopic());
         String senderEmail = sharedContext.getCurrentUser().getEmail();
         int subscriberCounter = 0;
@@ -271,6 +359,14 @@ public class AdminStaffController extends StaffController {
         }
     }
 
+    /**
+     * Displays the latency of each search stage and the search counters collected since startup,
+     * so that the load on the page search can be measured.
+     */
+    public void viewSearchMetrics() {
+        view.displayInfo(sharedContext.getPageSearch().getMetrics().dump());
+    }
+
     /**
      * Manages inquiries submitted by users. Lists all inquiries and allows the admin staff to select one
      * for management, which includes responding to the inquiry or redirecting it to another staff member.
@@ -3,12 +3,12 @@ package controller;
 import external.AuthenticationService;
 import external.EmailService;
 import model.*;
-import org.apache.lucene.queryparser.flexible.standard.StandardQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.Query;
 import view.View;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -17,6 +17,10 @@ import java.util.regex.Pattern;
  * such as consulting FAQs, searching pages, and contacting staff.
  */
 public class InquirerController extends Controller {
+    private static final int SEARCH_RESULTS_PER_PAGE = 4; // Number of search results displayed at a time
+    private static final int SEARCH_SUGGESTIONS = 5; // Number of completions suggested when a search finds nothing
+    private static final int FAQ_SEARCH_RESULTS = 5; // Number of FAQ items displayed for a FAQ search
+
     /**
      * Constructs an InquirerController with specified shared context, view, authentication service, and email service.
      *
@@ -48,14 +52,18 @@ public class InquirerController extends Controller {
 
 
         while (!(currentSection == null && optionNo == -1)) {
+            // The FAQ may have been edited since the last option, so the section is looked up in the latest snapshot
+            faq = sharedContext.getFaq();
+            if (currentSection != null) {
+                currentSection = faq.getSection(currentSection.getTopicPath());
+            }
             if (currentSection == null) {
-                faq = sharedContext.getFaq();
                 view.displayFAQ(faq, currentUser instanceof Guest);
                 view.displayDivider();
                 view.displayInfo("[-1] to return to the main menu");
             } else {
                 view.displayFAQSection(currentSection, currentUser instanceof Guest);
-                parent = currentSection.getParent();
+                parent = faq.getParent(currentSection);
                 view.displayDivider();
                 if (parent == null) {
                     view.displayInfo("[-1] to return to the main FAQ menu");
@@ -99,7 +107,7 @@ public class InquirerController extends Controller {
                 } else {
                     switch (optionNo) {
                         case -1:
-                            parent = currentSection.getParent();
+                            parent = faq.getParent(currentSection);
                             currentSection = parent;
                             optionNo = 0;
                             break;
@@ -152,6 +160,45 @@ public class InquirerController extends Controller {
         }
     }
 
+    /**
+     * Searches the questions, answers and topics of the FAQ, so that an answer can be found without
+     * navigating the FAQ sections. Items of private sections are only shown to logged in users.
+     */
+    public void searchFAQ() {
+        String searchQuery = view.getInput("Enter your FAQ search query: ");
+        while (searchQuery.isBlank()) {
+            view.displayError("Search query cannot be empty.");
+            searchQuery = view.getInput("Please enter a valid search query: ");
+        }
+
+        FAQSearch faqSearch = sharedContext.getFaqSearch();
+        Query query;
+        while (true) {
+            try {
+                query = faqSearch.compileQuery(searchQuery);
+                break;
+            } catch (ParseException exception) {
+                view.displayError("Invalid search query. Please try again.");
+                searchQuery = view.getInput("Please enter a valid search query: ");
+            }
+        }
+
+        boolean includePrivate = !(sharedContext.getCurrentUser() instanceof Guest);
+        List<FAQSearchResult> results;
+        try {
+            results = faqSearch.search(query, includePrivate, FAQ_SEARCH_RESULTS);
+        } catch (IOException exception) {
+            view.displayException(exception);
+            return;
+        }
+
+        if (results.isEmpty()) {
+            view.displayError("No FAQ items found for query: " + searchQuery);
+            return;
+        }
+        view.displayFAQSearchResults(results);
+    }
+
     /**
      * Provides a search functionality for the user to search through available pages.
      * If the user is a guest, private pages are excluded from the search results.
@@ -167,58 +214,102 @@ public class InquirerController extends Controller {
         }
 
         // If search query is incorrect, prompt user to enter a valid search query
-        StandardQueryParser queryParser = new StandardQueryParser();
+        // The compiled query is the one that is searched, so it is only parsed once
+        PageSearch pageSearch = sharedContext.getPageSearch();
+        Query query;
         while (true) {
             try {
-                queryParser.parse(searchQuery, "content");
+                query = pageSearch.compileQuery(searchQuery);
                 break;
-            } catch (Exception exception) {
+            } catch (ParseException exception) {
                 view.displayError("Invalid search query. Please try again.");
                 searchQuery = view.getInput("Please enter a valid search query: ");
             }
         }
 
-        HashMap<String, Page> availablePages = sharedContext.getPages();
-
-        // If current user is a guest remove private pages from search results
-        if (sharedContext.getCurrentUser() instanceof Guest) {
-            for (Page page : availablePages.values()) {
-                Boolean isPrivate = page.isPrivate();
-                if (isPrivate) {
-                    availablePages.remove(page.getTitle());
-                }
-            }
-        }
-
-        PageSearch search;
-        try {
-            search = new PageSearch(availablePages);
-        } catch (IOException exception) {
-            // This will also catch other query format exceptions
-            view.displayException(exception);
-            return;
-        }
+        // Private pages are only searched for logged in users
+        boolean includePrivate = !(sharedContext.getCurrentUser() instanceof Guest);
 
-        Collection<PageSearchResult> results = null;
+        // Only the results that are displayed are collected, showing the best paragraph of each page
+        PageSearchResults results;
         try {
-            results = search.search(searchQuery);
+            results = pageSearch.searchCollapsed(query, includePrivate, SEARCH_RESULTS_PER_PAGE);
         } catch (Exception exception) {
             view.displayException(exception);
+            displayStartupStatus(pageSearch);
+            return;
         }
 
         // if no results found
-        if (results == null || results.isEmpty()) {
+        if (results.isEmpty()) {
             view.displayInfo("\033[H\033[2J");
+            displayStartupStatus(pageSearch);
             view.displayError("No results found for query: " + searchQuery);
+            suggestQueries(pageSearch, searchQuery, includePrivate);
             return;
         }
 
-        // Limit the number of results to 4
-        if (results.size() > 4) {
-            results = ((List<PageSearchResult>) results).subList(0, 4);
+        displayStartupStatus(pageSearch);
+        view.displaySearchResults(results.getResults());
+
+        // Offer the next page of results while there are more
+        while (results.hasMore() && view.getYesNoInput("Show more results?")) {
+            try {
+                results = pageSearch.searchNext(results);
+            } catch (Exception exception) {
+                view.displayException(exception);
+                return;
+            }
+            if (results.isEmpty()) {
+                break;
+            }
+            view.displaySearchResults(results.getResults());
+        }
+    }
+
+    /**
+     * Tells the user if the results of a search may be incomplete because of the startup of the index.
+     * A failed startup is reported once, since the pages indexed despite the failure are still searched.
+     * Until the startup has finished, every search warns that some pages may be missing.
+     *
+     * @param pageSearch the search index over the pages
+     */
+    private void displayStartupStatus(PageSearch pageSearch) {
+        IOException startupError = pageSearch.pollStartupError();
+        if (startupError != null) {
+            Throwable cause = startupError.getCause() == null ? startupError : startupError.getCause();
+            view.displayError("Some pages could not be indexed at startup and are missing from the results: "
+                    + cause.getMessage());
+        } else if (!pageSearch.isReady() && pageSearch.getStartupError() == null) {
+            // The search waited for the index for a bounded time, after which only the pages indexed so far are searched
+            view.displayWarning("The search index is still being prepared, some pages may be missing from the results.");
         }
+    }
 
-        view.displaySearchResults(results);
+    /**
+     * Suggests other queries after a search found nothing: a spelling correction of the query if
+     * one is found, and otherwise completions of its last word.
+     *
+     * @param pageSearch     the search index over the pages
+     * @param searchQuery    the query that found nothing
+     * @param includePrivate whether words of private pages may be suggested
+     */
+    private void suggestQueries(PageSearch pageSearch, String searchQuery, boolean includePrivate) {
+        try {
+            String correction = pageSearch.didYouMean(searchQuery, includePrivate);
+            if (correction != null) {
+                view.displayInfo("Did you mean: " + correction + "?");
+                return;
+            }
+            String[] words = searchQuery.trim().split("\\s+");
+            List<String> completions = pageSearch.suggest(words[words.length - 1], includePrivate, SEARCH_SUGGESTIONS);
+            completions.remove(words[words.length - 1]);
+            if (!completions.isEmpty()) {
+                view.displayInfo("Related searches: " + String.join(", ", completions));
+            }
+        } catch (IOException exception) {
+            view.displayException(exception);
+        }
     }
 
     /**
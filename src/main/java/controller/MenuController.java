@@ -18,14 +18,14 @@ public class MenuController extends Controller {
      * Enum for guest main menu options.
      */
     private enum GuestMainMenuOption {
-        LOGIN, CONSULT_FAQ, SEARCH_PAGES, CONTACT_STAFF
+        LOGIN, CONSULT_FAQ, SEARCH_PAGES, CONTACT_STAFF, SEARCH_FAQ
     }
 
     /**
      * Enum for student main menu options.
      */
     private enum StudentMainMenuOption {
-        LOGOUT, CONSULT_FAQ, SEARCH_PAGES, CONTACT_STAFF
+        LOGOUT, CONSULT_FAQ, SEARCH_PAGES, CONTACT_STAFF, SEARCH_FAQ
     }
 
     /**
@@ -39,7 +39,7 @@ public class MenuController extends Controller {
      * Enum for admin staff main menu options.
      */
     private enum AdminStaffMainMenuOption {
-        LOGOUT, MANAGE_INQUIRIES, ADD_PAGE, VIEW_ALL_PAGES, MANAGE_FAQ
+        LOGOUT, MANAGE_INQUIRIES, ADD_PAGE, VIEW_ALL_PAGES, MANAGE_FAQ, IMPORT_PAGES, VIEW_SEARCH_METRICS
     }
 
     private InquirerController inquirerController;
@@ -85,7 +85,8 @@ public class MenuController extends Controller {
     }
 
     /**
-     * Handles the guest user's main menu, offering options such as login, consult FAQ, search pages, and contact staff.
+     * Handles the guest user's main menu, offering options such as login, consult FAQ, search pages, contact staff,
+     * and search FAQ.
      *
      * @return true if the menu was handled successfully.
      */
@@ -106,12 +107,16 @@ public class MenuController extends Controller {
             case 4:
                 inquirerController.contactStaff();
                 break;
+            case 5:
+                inquirerController.searchFAQ();
+                break;
         }
         return true;
     }
 
     /**
-     * Handles the student user's main menu, offering options such as logout, consult FAQ, search pages, and contact staff.
+     * Handles the student user's main menu, offering options such as logout, consult FAQ, search pages, contact staff,
+     * and search FAQ.
      *
      * @return true if the menu was handled successfully.
      */
@@ -132,6 +137,9 @@ public class MenuController extends Controller {
             case 4:
                 inquirerController.contactStaff();
                 break;
+            case 5:
+                inquirerController.searchFAQ();
+                break;
         }
         return true;
     }
@@ -158,7 +166,8 @@ public class MenuController extends Controller {
     }
 
     /**
-     * Handles the admin staff's main menu, offering options such as logout, manage inquiries, add page, view all pages, and manage FAQ.
+     * Handles the admin staff's main menu, offering options such as logout, manage inquiries, add page, view all pages,
+     * manage FAQ, import pages, and view search metrics.
      *
      * @return true if the menu was handled successfully.
      */
@@ -183,6 +192,12 @@ public class MenuController extends Controller {
             case 5:
                 adminStaffController.manageFAQ();
                 break;
+            case 6:
+                adminStaffController.importPages();
+                break;
+            case 7:
+                adminStaffController.viewSearchMetrics();
+                break;
         }
         return true;
     }
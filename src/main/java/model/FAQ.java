@@ -1,34 +1,197 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The FAQ class is used to store FAQ sections.
  * It has an attribute called sections.
- * It has a constructor, a method to add sections, and getters and setters for the attributes.
+ * Every section of the tree is also indexed by its topic path, so a section is found, and a duplicate
+ * topic detected, without scanning its siblings.
+ * A FAQ is an immutable snapshot: adding a section or an item returns a new FAQ that copies only the
+ * sections on the path to the change and shares every other section. Readers can therefore walk a
+ * snapshot without locking while a new version is built, and the snapshot can be shared by every session.
  */
 public class FAQ {
-    private List<FAQSection> sections; // List to store FAQ sections
+    private final List<FAQSection> sections; // List to store FAQ sections
+    private final Map<List<String>, FAQSection> sectionsByPath; // Every section of the tree by its topic path
+    private final long version; // Number of changes made to build this snapshot
 
     /**
      * Constructs a new FAQ object with an empty list of sections.
      */
     public FAQ() {
-        sections = new ArrayList<>();
+        this(List.of(), Map.of(), 0);
     }
 
     /**
-     * Adds a section to the FAQ.
+     * Constructs a new FAQ object with the given top-level sections. The sections are indexed in one pass,
+     * so a large FAQ, such as one loaded from a store, is built without copying the index for every section.
      *
+     * @param sections the top-level sections
+     * @throws IllegalArgumentException if two top-level sections have the same topic
+     */
+    public FAQ(List<FAQSection> sections) {
+        Map<List<String>, FAQSection> newIndex = new HashMap<>();
+        List<FAQSection> newSections = new ArrayList<>();
+        for (FAQSection section : sections) {
+            FAQSection added = section.under(List.of());
+            if (newIndex.containsKey(added.getTopicPath())) {
+                throw new IllegalArgumentException("FAQ topic already exists: " + added.getTopic());
+            }
+            index(newIndex, added);
+            newSections.add(added);
+        }
+        this.sections = Collections.unmodifiableList(newSections);
+        this.sectionsByPath = Collections.unmodifiableMap(newIndex);
+        this.version = 0;
+    }
+
+    /**
+     * Constructs a new FAQ object from all of its attributes.
+     *
+     * @param sections       the unmodifiable top-level sections
+     * @param sectionsByPath the unmodifiable index of every section by its topic path
+     * @param version        the number of changes made to build this snapshot
+     */
+    private FAQ(List<FAQSection> sections, Map<List<String>, FAQSection> sectionsByPath, long version) {
+        this.sections = sections;
+        this.sectionsByPath = sectionsByPath;
+        this.version = version;
+    }
+
+    /**
+     * Creates a new version of the FAQ with a section, and its subsections, added under a parent
+     * section or at the top level.
+     *
+     * @param parent  the parent section, or null to add a top-level section
      * @param section the FAQSection to be added
+     * @return the new version of the FAQ
+     * @throws IllegalArgumentException if the parent is not in this FAQ, or already has a section with the same topic
+     */
+    public FAQ withSection(FAQSection parent, FAQSection section) {
+        List<String> parentPath = parent == null ? List.of() : parent.getTopicPath();
+        if (getSubsection(parent, section.getTopic()) != null) {
+            List<String> topicPath = new ArrayList<>(parentPath);
+            topicPath.add(section.getTopic());
+            throw new IllegalArgumentException("FAQ topic already exists: " + String.join(" / ", topicPath));
+        }
+        Map<List<String>, FAQSection> newIndex = new HashMap<>(sectionsByPath);
+        FAQSection added = section.under(parentPath);
+        index(newIndex, added);
+        if (parent == null) {
+            List<FAQSection> newSections = new ArrayList<>(sections);
+            newSections.add(added);
+            return new FAQ(Collections.unmodifiableList(newSections), Collections.unmodifiableMap(newIndex), version + 1);
+        }
+        return replace(newIndex, requireSection(parentPath).withSubsection(added));
+    }
+
+    /**
+     * Creates a new version of the FAQ with an item added to a section.
+     *
+     * @param section  the section, of this or an earlier version of the FAQ, to add the item to
+     * @param question the question of the FAQ item
+     * @param answer   the answer to the FAQ item
+     * @return the new version of the FAQ
+     * @throws IllegalArgumentException if the section is not in this FAQ
+     */
+    public FAQ withItem(FAQSection section, String question, String answer) {
+        FAQSection updated = requireSection(section.getTopicPath()).withItem(question, answer);
+        return replace(new HashMap<>(sectionsByPath), updated);
+    }
+
+    /**
+     * Builds the new version of the FAQ in which a section is replaced by its new version. The ancestors
+     * of the section are copied with the new version of their child, and every other section is shared.
+     *
+     * @param newIndex the index of the new version, updated with the copied sections
+     * @param updated  the new version of the section
+     * @return the new version of the FAQ
      */
-    public void addSectionItems(FAQSection section) {
-        sections.add(section);
+    private FAQ replace(Map<List<String>, FAQSection> newIndex, FAQSection updated) {
+        List<String> topicPath = updated.getTopicPath();
+        newIndex.put(topicPath, updated);
+        for (int depth = topicPath.size() - 1; depth > 0; depth--) {
+            updated = newIndex.get(topicPath.subList(0, depth)).withSubsectionReplaced(updated);
+            newIndex.put(updated.getTopicPath(), updated);
+        }
+        List<FAQSection> newSections = new ArrayList<>(sections);
+        for (int i = 0; i < newSections.size(); i++) {
+            if (newSections.get(i).getTopic().equals(updated.getTopic())) {
+                newSections.set(i, updated);
+            }
+        }
+        return new FAQ(Collections.unmodifiableList(newSections), Collections.unmodifiableMap(newIndex), version + 1);
     }
 
     /**
-     * Returns the list of sections in the FAQ.
+     * Finds a section of this FAQ by its topic path.
+     *
+     * @param topicPath the topic path of the section
+     * @return the section
+     * @throws IllegalArgumentException if the section is not in this FAQ
+     */
+    private FAQSection requireSection(List<String> topicPath) {
+        FAQSection section = sectionsByPath.get(topicPath);
+        if (section == null) {
+            throw new IllegalArgumentException("FAQ topic not found: " + String.join(" / ", topicPath));
+        }
+        return section;
+    }
+
+    /**
+     * Indexes a section and its subsections by their topic paths.
+     *
+     * @param index   the index to add the sections to
+     * @param section the section to index
+     */
+    private static void index(Map<List<String>, FAQSection> index, FAQSection section) {
+        index.put(section.getTopicPath(), section);
+        for (FAQSection subsection : section.getSubsections()) {
+            index(index, subsection);
+        }
+    }
+
+    /**
+     * Finds a section by its topic path.
+     *
+     * @param topicPath the topics from the top-level section down to the section
+     * @return the section, or null if there is none
+     */
+    public FAQSection getSection(List<String> topicPath) {
+        return sectionsByPath.get(topicPath);
+    }
+
+    /**
+     * Finds a subsection of a parent section, or a top-level section, by its topic.
+     *
+     * @param parent the parent section, or null for a top-level section
+     * @param topic  the topic of the subsection
+     * @return the subsection, or null if there is none
+     */
+    public FAQSection getSubsection(FAQSection parent, String topic) {
+        List<String> topicPath = parent == null ? new ArrayList<>() : new ArrayList<>(parent.getTopicPath());
+        topicPath.add(topic);
+        return sectionsByPath.get(topicPath);
+    }
+
+    /**
+     * Finds the parent of a section in this FAQ.
+     *
+     * @param section the section
+     * @return the parent section, or null for a top-level section
+     */
+    public FAQSection getParent(FAQSection section) {
+        List<String> topicPath = section.getTopicPath();
+        return topicPath.size() < 2 ? null : sectionsByPath.get(topicPath.subList(0, topicPath.size() - 1));
+    }
+
+    /**
+     * Returns the unmodifiable list of sections in the FAQ.
      *
      * @return the list of sections
      */
@@ -37,11 +200,12 @@ public class FAQ {
     }
 
     /**
-     * Sets the list of sections in the FAQ.
+     * Retrieves the number of changes made to build this snapshot, starting from an empty FAQ or a
+     * FAQ constructed from a list of sections.
      *
-     * @param sections the new list of sections
+     * @return the version of the FAQ
      */
-    public void setSections(List<FAQSection> sections) {
-        this.sections = sections;
+    public long getVersion() {
+        return version;
     }
-}
\ No newline at end of file
+}
@@ -3,11 +3,12 @@ package model;
 /**
  * The FAQItem class is used to store FAQ items.
  * It has two attributes: question and answer.
- * It has a constructor and getters and setters for the attributes.
+ * It has a constructor and getters for the attributes. Items are immutable, so they can be shared
+ * by every version of the FAQ.
  */
 public class FAQItem {
-    private String question; // The question of the FAQ item
-    private String answer; // The answer to the FAQ item
+    private final String question; // The question of the FAQ item
+    private final String answer; // The answer to the FAQ item
 
     /**
      * Constructs a new FAQItem object with the specified question and answer.
@@ -29,15 +30,6 @@ public class FAQItem {
         return question;
     }
 
-    /**
-     * Sets the question of the FAQ item.
-     *
-     * @param question the new question of the FAQ item
-     */
-    public void setQuestion(String question) {
-        this.question = question;
-    }
-
     /**
      * Returns the answer to the FAQ item.
      *
@@ -46,13 +38,4 @@ public class FAQItem {
     public String getAnswer() {
         return answer;
     }
-
-    /**
-     * Sets the answer to the FAQ item.
-     *
-     * @param answer the new answer to the FAQ item
-     */
-    public void setAnswer(String answer) {
-        this.answer = answer;
-    }
 }
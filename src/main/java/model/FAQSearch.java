@@ -0,0 +1,183 @@
+package model;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text search over the questions and answers of the FAQ. Each FAQ item is indexed in memory as one
+ * document holding its question, its answer, the topic path of its section and whether it is private,
+ * so an answer can be found with one query instead of walking the FAQ tree level by level. The index is
+ * updated incrementally as items are added, and rebuilt when the whole FAQ is replaced.
+ */
+public class FAQSearch implements Closeable {
+    private static final String[] SEARCHED_FIELDS = {"question", "answer", "topic"}; // Fields matched by a query
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of("question", 2f, "answer", 1f, "topic", 1f); // Weights of the searched fields
+    private static final Query PUBLIC_ONLY = new TermQuery(new Term("private", "false")); // Filter matching public items
+    private final StandardAnalyzer analyzer; // The analyzer used for indexing and searching
+    private final Directory index; // The in-memory index of the FAQ items
+    private final IndexWriter writer; // The long-lived writer adding items to the index
+    private final SearcherManager searcherManager; // Shares one near-real-time searcher between searches
+
+    /**
+     * Constructs a new FAQSearch indexing every item of the given FAQ.
+     *
+     * @param faq the FAQ to index
+     * @throws IOException if the index cannot be created
+     */
+    public FAQSearch(FAQ faq) throws IOException {
+        this.analyzer = new StandardAnalyzer();
+        this.index = new ByteBuffersDirectory();
+        this.writer = new IndexWriter(index, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+        rebuild(faq);
+    }
+
+    /**
+     * Replaces the indexed items with every item of the given FAQ.
+     *
+     * @param faq the FAQ to index
+     * @throws IOException if an I/O error occurs
+     */
+    public void rebuild(FAQ faq) throws IOException {
+        writer.deleteAll();
+        for (FAQSection section : faq.getSections()) {
+            addSection(section, false);
+        }
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Indexes the items of a section and of its subsections.
+     *
+     * @param section       the section to index
+     * @param parentPrivate whether a section above the section is private
+     * @throws IOException if an I/O error occurs
+     */
+    private void addSection(FAQSection section, boolean parentPrivate) throws IOException {
+        boolean isPrivate = parentPrivate || section.isPrivate();
+        for (FAQItem item : section.getItems()) {
+            writer.addDocument(createDoc(section, item, isPrivate));
+        }
+        for (FAQSection subsection : section.getSubsections()) {
+            addSection(subsection, isPrivate);
+        }
+    }
+
+    /**
+     * Indexes an item added to a section, so that the next search finds it.
+     * An item is private if its section or any section above it is private.
+     *
+     * @param faq     the FAQ snapshot holding the section
+     * @param section the section the item was added to
+     * @param item    the added item
+     * @throws IOException if an I/O error occurs
+     */
+    public void addItem(FAQ faq, FAQSection section, FAQItem item) throws IOException {
+        boolean isPrivate = false;
+        for (FAQSection current = section; current != null; current = faq.getParent(current)) {
+            isPrivate |= current.isPrivate();
+        }
+        writer.addDocument(createDoc(section, item, isPrivate));
+        searcherManager.maybeRefresh();
+    }
+
+    /**
+     * Creates the document of a FAQ item.
+     *
+     * @param section   the section of the item
+     * @param item      the item
+     * @param isPrivate whether the item is private
+     * @return the document to index
+     */
+    private static Document createDoc(FAQSection section, FAQItem item, boolean isPrivate) {
+        String topicPath = String.join(" / ", section.getTopicPath());
+
+        Document doc = new Document();
+        doc.add(new TextField("question", item.getQuestion(), Field.Store.YES));
+        doc.add(new TextField("answer", item.getAnswer(), Field.Store.YES));
+        doc.add(new TextField("topic", topicPath, Field.Store.NO));
+        doc.add(new StoredField("path", topicPath));
+        doc.add(new StringField("private", String.valueOf(isPrivate), Field.Store.NO));
+        return doc;
+    }
+
+    /**
+     * Compiles a query string into a Lucene query over the questions, answers and topics of the items.
+     *
+     * @param queryString the query string entered by the user
+     * @return the compiled query
+     * @throws ParseException if the query string is not a valid query
+     */
+    public Query compileQuery(String queryString) throws ParseException {
+        return new MultiFieldQueryParser(SEARCHED_FIELDS, analyzer, FIELD_BOOSTS)
+                .parse(queryString.trim().replaceAll("\\s+", " "));
+    }
+
+    /**
+     * Searches the indexed items for the given query and returns the best matches.
+     *
+     * @param query          the query compiled by {@link #compileQuery(String)}
+     * @param includePrivate whether items of private sections may be returned
+     * @param maxResults     the maximum number of results to return
+     * @return the matching items, best match first
+     * @throws IOException if an I/O error occurs
+     */
+    public List<FAQSearchResult> search(Query query, boolean includePrivate, int maxResults) throws IOException {
+        Query filteredQuery = query;
+        if (!includePrivate) {
+            filteredQuery = new BooleanQuery.Builder()
+                    .add(query, BooleanClause.Occur.MUST)
+                    .add(PUBLIC_ONLY, BooleanClause.Occur.FILTER)
+                    .build();
+        }
+        List<FAQSearchResult> results = new ArrayList<>();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            StoredFields storedFields = searcher.storedFields();
+            for (ScoreDoc scoreDoc : searcher.search(filteredQuery, maxResults).scoreDocs) {
+                Document doc = storedFields.document(scoreDoc.doc);
+                results.add(new FAQSearchResult(doc.get("path"), doc.get("question"), doc.get("answer"), scoreDoc.score));
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return results;
+    }
+
+    /**
+     * Closes the shared searcher, the index writer and the index directory.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        index.close();
+    }
+}
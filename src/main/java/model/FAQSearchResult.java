@@ -0,0 +1,71 @@
+package model;
+
+/**
+ * Represents a FAQ item found by the FAQSearch class, together with the topic path of its section.
+ */
+public class FAQSearchResult {
+    private String topicPath; // The topics from the top-level section down to the section of the item
+    private String question; // The question of the FAQ item
+    private String answer; // The answer to the FAQ item
+    private float score; // The score of the item for the query
+
+    /**
+     * Constructs a new FAQSearchResult object.
+     *
+     * @param topicPath the topics from the top-level section down to the section of the item
+     * @param question  the question of the FAQ item
+     * @param answer    the answer to the FAQ item
+     * @param score     the score of the item for the query
+     */
+    public FAQSearchResult(String topicPath, String question, String answer, float score) {
+        this.topicPath = topicPath;
+        this.question = question;
+        this.answer = answer;
+        this.score = score;
+    }
+
+    /**
+     * Retrieves the topic path of the section of the item, for example "Exams / Resits".
+     *
+     * @return the topic path
+     */
+    public String getTopicPath() {
+        return topicPath;
+    }
+
+    /**
+     * Retrieves the question of the FAQ item.
+     *
+     * @return the question
+     */
+    public String getQuestion() {
+        return question;
+    }
+
+    /**
+     * Retrieves the answer to the FAQ item.
+     *
+     * @return the answer
+     */
+    public String getAnswer() {
+        return answer;
+    }
+
+    /**
+     * Retrieves the score of the item for the query.
+     *
+     * @return the score
+     */
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieves the formatted content of the search result, as displayed to the user.
+     *
+     * @return the topic path, question and answer of the item
+     */
+    public String getFormattedContent() {
+        return "Topic: " + topicPath + "\nQ: " + question + "\nA: " + answer + "\n";
+    }
+}
@@ -1,125 +1,188 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Represents a section in the FAQ.
  * A section can have subsections and items.
  * A section can be private or public.
+ * Sections are immutable: adding an item or a subsection returns a new section, and sections that did
+ * not change are shared between versions of the FAQ. A section knows its topic path instead of its parent,
+ * so that an unchanged subsection can be shared by the old and the new version of its parent. The version
+ * of a section is incremented whenever its own items or subsections change.
  */
 public class FAQSection {
-    private String topic; // The topic of the FAQ section
-    private boolean isPrivate; // Indicates whether the section is private
-    private FAQSection parent; // The parent section of this section, if any
-    private List<FAQSection> subsections; // List of subsections within this section
-    private List<FAQItem> items; // List of items within this section
+    private final String topic; // The topic of the FAQ section
+    private final boolean isPrivate; // Indicates whether the section is private
+    private final List<String> topicPath; // The topics from the top-level section down to this section
+    private final List<FAQSection> subsections; // List of subsections within this section
+    private final List<FAQItem> items; // List of items within this section
+    private final long version; // Number of changes to the items and subsections of this section
 
     /**
-     * Constructs a new FAQSection object with the specified topic.
+     * Constructs a new public FAQSection object with the specified topic.
      *
      * @param topic the topic of the FAQ section
      */
     public FAQSection(String topic) {
-        this.topic = topic;
-        this.subsections = new ArrayList<>();
-        this.items = new ArrayList<>();
-        // isPrivate is not necessary for this implementation
+        this(topic, false);
     }
 
     /**
-     * Adds a subsection to the section.
+     * Constructs a new FAQSection object with the specified topic and no items or subsections.
      *
-     * @param faqSection the subsection to be added
+     * @param topic     the topic of the FAQ section
+     * @param isPrivate whether the section is private
      */
-    public void addSubsection(FAQSection faqSection) {
-        subsections.add(faqSection);
+    public FAQSection(String topic, boolean isPrivate) {
+        this(topic, isPrivate, List.of(topic), List.of(), List.of(), 0);
+    }
+
+    /**
+     * Constructs a new FAQSection object from all of its attributes.
+     *
+     * @param topic       the topic of the FAQ section
+     * @param isPrivate   whether the section is private
+     * @param topicPath   the topics from the top-level section down to this section
+     * @param subsections the subsections within this section
+     * @param items       the items within this section
+     * @param version     the number of changes to the items and subsections of this section
+     */
+    FAQSection(String topic, boolean isPrivate, List<String> topicPath, List<FAQSection> subsections,
+               List<FAQItem> items, long version) {
+        this.topic = topic;
+        this.isPrivate = isPrivate;
+        this.topicPath = topicPath;
+        this.subsections = subsections;
+        this.items = items;
+        this.version = version;
     }
 
     /**
-     * Adds an item to the section.
+     * Creates a copy of this section with an item added.
      *
      * @param question the question of the FAQ item
      * @param answer   the answer to the FAQ item
+     * @return the new section
      */
-    public void addItem(String question, String answer) {
-        items.add(new FAQItem(question, answer));
+    public FAQSection withItem(String question, String answer) {
+        List<FAQItem> newItems = new ArrayList<>(items);
+        newItems.add(new FAQItem(question, answer));
+        return new FAQSection(topic, isPrivate, topicPath, subsections, Collections.unmodifiableList(newItems),
+                version + 1);
     }
 
     /**
-     * Retrieves the topic of this FAQ section.
+     * Creates a copy of this section with a subsection added. The subsection and its own subsections
+     * are moved under the topic path of this section.
      *
-     * @return the topic of the FAQ section
+     * @param subsection the subsection to add
+     * @return the new section
+     * @throws IllegalArgumentException if this section already has a subsection with the same topic
      */
-    public String getTopic() {
-        return topic;
+    public FAQSection withSubsection(FAQSection subsection) {
+        if (getSubsection(subsection.getTopic()) != null) {
+            throw new IllegalArgumentException("FAQ topic already exists: "
+                    + String.join(" / ", subsection.under(topicPath).getTopicPath()));
+        }
+        List<FAQSection> newSubsections = new ArrayList<>(subsections);
+        newSubsections.add(subsection.under(topicPath));
+        return new FAQSection(topic, isPrivate, topicPath, Collections.unmodifiableList(newSubsections), items,
+                version + 1);
     }
 
     /**
-     * Sets the topic of this FAQ section.
+     * Creates a copy of this section in which the subsection with the topic of the given section is replaced
+     * by it. The version is unchanged, since the topics of the subsections stay the same.
      *
-     * @param topic the new topic of the FAQ section
+     * @param subsection the new version of one of the subsections
+     * @return the new section
      */
-    public void setTopic(String topic) {
-        this.topic = topic;
+    FAQSection withSubsectionReplaced(FAQSection subsection) {
+        List<FAQSection> newSubsections = new ArrayList<>(subsections);
+        for (int i = 0; i < newSubsections.size(); i++) {
+            if (newSubsections.get(i).getTopic().equals(subsection.getTopic())) {
+                newSubsections.set(i, subsection);
+            }
+        }
+        return new FAQSection(topic, isPrivate, topicPath, Collections.unmodifiableList(newSubsections), items, version);
     }
 
     /**
-     * Checks if this FAQ section is private.
+     * Creates a copy of this section, and of its subsections, placed under the given topic path.
      *
-     * @return true if the section is private, false otherwise
+     * @param parentPath the topic path of the new parent, or an empty list for the top level
+     * @return this section if it is already under the path, otherwise the moved copy
      */
-    public boolean isPrivate() {
-        return isPrivate;
+    FAQSection under(List<String> parentPath) {
+        List<String> newPath = new ArrayList<>(parentPath);
+        newPath.add(topic);
+        if (newPath.equals(topicPath)) {
+            return this;
+        }
+        List<FAQSection> movedSubsections = new ArrayList<>();
+        for (FAQSection subsection : subsections) {
+            movedSubsections.add(subsection.under(newPath));
+        }
+        return new FAQSection(topic, isPrivate, List.copyOf(newPath), Collections.unmodifiableList(movedSubsections),
+                items, version);
     }
 
     /**
-     * Sets the privacy status of this FAQ section.
+     * Finds a subsection of this section by its topic.
      *
-     * @param aPrivate true to set the section as private, false otherwise
+     * @param topic the topic of the subsection
+     * @return the subsection, or null if there is none
      */
-    public void setPrivate(boolean aPrivate) {
-        isPrivate = aPrivate;
+    public FAQSection getSubsection(String topic) {
+        for (FAQSection subsection : subsections) {
+            if (subsection.getTopic().equals(topic)) {
+                return subsection;
+            }
+        }
+        return null;
     }
 
     /**
-     * Retrieves the parent section of this FAQ section.
+     * Retrieves the topic of this FAQ section.
      *
-     * @return the parent section, or null if there's no parent
+     * @return the topic of the FAQ section
      */
-    public FAQSection getParent() {
-        return parent;
+    public String getTopic() {
+        return topic;
     }
 
     /**
-     * Sets the parent section of this FAQ section.
+     * Retrieves the topics from the top-level section down to this section.
      *
-     * @param parent the new parent section
+     * @return the unmodifiable topic path, starting with the topic of the top-level section
      */
-    public void setParent(FAQSection parent) {
-        this.parent = parent;
+    public List<String> getTopicPath() {
+        return topicPath;
     }
 
     /**
-     * Retrieves the list of subsections within this FAQ section.
+     * Checks if this FAQ section is private.
      *
-     * @return the list of subsections
+     * @return true if the section is private, false otherwise
      */
-    public List<FAQSection> getSubsections() {
-        return subsections;
+    public boolean isPrivate() {
+        return isPrivate;
     }
 
     /**
-     * Sets the list of subsections within this FAQ section.
+     * Retrieves the unmodifiable list of subsections within this FAQ section.
      *
-     * @param subsections the new list of subsections
+     * @return the list of subsections
      */
-    public void setSubsections(List<FAQSection> subsections) {
-        this.subsections = subsections;
+    public List<FAQSection> getSubsections() {
+        return subsections;
     }
 
     /**
-     * Retrieves the list of items within this FAQ section.
+     * Retrieves the unmodifiable list of items within this FAQ section.
      *
      * @return the list of items
      */
@@ -128,11 +191,11 @@ public class FAQSection {
     }
 
     /**
-     * Sets the list of items within this FAQ section.
+     * Retrieves the version of this section, incremented whenever its items or subsections change.
      *
-     * @param items the new list of items
+     * @return the version
      */
-    public void setItems(List<FAQItem> items) {
-        this.items = items;
+    public long getVersion() {
+        return version;
     }
 }
@@ -0,0 +1,489 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The FAQStore class keeps the FAQ on disk so that it survives a restart. Every edit is appended to a
+ * change log before it is published, and once enough edits have been logged a compact binary snapshot of
+ * the whole FAQ is written and the log is cleared. At startup the latest snapshot is streamed in section by
+ * section, then the edits logged after it are replayed.
+ * <p>
+ * Every edit has a sequence number. The snapshot records the sequence number of the last edit it holds,
+ * so edits still in the log after a crash between writing the snapshot and clearing the log are skipped.
+ * Log records carry their length and a checksum, so a record torn by a crash is detected and cut off.
+ */
+public class FAQStore implements Closeable {
+    private static final String SNAPSHOT_FILE = "faq.snapshot"; // Name of the snapshot file in the store directory
+    private static final String LOG_FILE = "faq.log"; // Name of the change log file in the store directory
+    private static final int SNAPSHOT_MAGIC = 0x46415153; // "FAQS", the first bytes of a snapshot file
+    private static final int SNAPSHOT_FORMAT = 1; // Version of the snapshot layout, changed when it is incompatible
+    private static final byte ADD_SECTION = 1; // Log record type of an added section
+    private static final byte ADD_ITEM = 2; // Log record type of an added item
+    private static final int BUFFER_SIZE = 1 << 16; // Size of the buffers used to stream a snapshot
+    private final Path snapshotPath; // The snapshot file
+    private final Path logPath; // The change log file
+    private final int compactEvery; // Number of logged edits after which a snapshot is written
+    private final FileChannel log; // Channel appending edits to the change log
+    private final FAQ recoveredFaq; // The FAQ read from the snapshot and the change log when the store was opened
+    private long sequence; // Sequence number of the last stored edit
+    private int editsSinceSnapshot; // Number of edits in the change log
+
+    /**
+     * Opens the store in the given directory, creating the directory if needed, and recovers the FAQ
+     * from the latest snapshot and the change log. A torn record at the end of the log is cut off.
+     *
+     * @param directory    the directory of the store
+     * @param compactEvery the number of logged edits after which a snapshot is written
+     * @throws IOException if the store cannot be opened, or the snapshot or the log is corrupt
+     */
+    public FAQStore(Path directory, int compactEvery) throws IOException {
+        Files.createDirectories(directory);
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.logPath = directory.resolve(LOG_FILE);
+        this.compactEvery = compactEvery;
+        Map<List<String>, SectionBuilder> sections = new HashMap<>();
+        List<SectionBuilder> topLevel = readSnapshot(sections);
+        this.log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            replayLog(sections, topLevel);
+            log.position(log.size());
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        List<FAQSection> built = new ArrayList<>(topLevel.size());
+        for (SectionBuilder builder : topLevel) {
+            built.add(builder.build());
+        }
+        this.recoveredFaq = new FAQ(built);
+    }
+
+    /**
+     * Reads the latest snapshot, streaming the sections in the order they were written.
+     *
+     * @param sections the index to add every read section to, by its topic path
+     * @return the top-level sections of the snapshot, or an empty list if there is no snapshot yet
+     * @throws IOException if the snapshot cannot be read or is not a FAQ snapshot
+     */
+    private List<SectionBuilder> readSnapshot(Map<List<String>, SectionBuilder> sections) throws IOException {
+        List<SectionBuilder> topLevel = new ArrayList<>();
+        if (!Files.exists(snapshotPath)) {
+            return topLevel;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath),
+                BUFFER_SIZE))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Not a FAQ snapshot: " + snapshotPath);
+            }
+            sequence = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                topLevel.add(readSection(in, List.of(), sections));
+            }
+            return topLevel;
+        } catch (EOFException e) {
+            throw new IOException("Truncated FAQ snapshot: " + snapshotPath, e);
+        }
+    }
+
+    /**
+     * Reads a section of a snapshot with its items and subsections.
+     *
+     * @param in         the snapshot stream
+     * @param parentPath the topic path of the parent section, or an empty list for a top-level section
+     * @param sections   the index to add the section and its subsections to
+     * @return the section
+     * @throws IOException if the section cannot be read
+     */
+    private static SectionBuilder readSection(DataInputStream in, List<String> parentPath,
+                                              Map<List<String>, SectionBuilder> sections) throws IOException {
+        SectionBuilder section = new SectionBuilder(parentPath, readString(in), in.readBoolean());
+        sections.put(section.topicPath, section);
+        int itemCount = in.readInt();
+        section.items.ensureCapacity(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            section.items.add(new FAQItem(readString(in), readString(in)));
+        }
+        int subsectionCount = in.readInt();
+        for (int i = 0; i < subsectionCount; i++) {
+            section.subsections.add(readSection(in, section.topicPath, sections));
+        }
+        return section;
+    }
+
+    /**
+     * Replays the edits logged after the snapshot. Reading stops at the first incomplete or corrupt record,
+     * which can only be the last one, and the log is cut back to the records before it.
+     *
+     * @param sections the sections of the snapshot by their topic paths
+     * @param topLevel the top-level sections of the snapshot
+     * @throws IOException if the log cannot be read, or a logged edit does not apply to the FAQ
+     */
+    private void replayLog(Map<List<String>, SectionBuilder> sections, List<SectionBuilder> topLevel)
+            throws IOException {
+        long validBytes = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.position(0)),
+                BUFFER_SIZE));
+        CRC32 crc = new CRC32();
+        while (true) {
+            byte[] record;
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > log.size()) {
+                    break;
+                }
+                record = new byte[length];
+                in.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+            applyRecord(sections, topLevel, record);
+            validBytes += Integer.BYTES * 2 + record.length;
+        }
+        if (validBytes < log.size()) {
+            log.truncate(validBytes);
+            log.force(true);
+        }
+    }
+
+    /**
+     * Applies a logged edit to the sections, unless the snapshot already holds it.
+     *
+     * @param sections the sections by their topic paths
+     * @param topLevel the top-level sections
+     * @param record   the log record of the edit
+     * @throws IOException if the record is corrupt or does not apply to the FAQ
+     */
+    private void applyRecord(Map<List<String>, SectionBuilder> sections, List<SectionBuilder> topLevel,
+                             byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        long recordSequence = in.readLong();
+        byte type = in.readByte();
+        List<String> topicPath = readPath(in);
+        if (recordSequence <= sequence) {
+            return;
+        }
+        sequence = recordSequence;
+        editsSinceSnapshot++;
+        SectionBuilder section = sections.get(topicPath);
+        if (section == null && !(type == ADD_SECTION && topicPath.isEmpty())) {
+            throw new IOException("Logged FAQ edit " + recordSequence + " does not apply, FAQ topic not found: "
+                    + String.join(" / ", topicPath));
+        }
+        if (type == ADD_SECTION) {
+            SectionBuilder added = new SectionBuilder(topicPath, readString(in), in.readBoolean());
+            if (sections.putIfAbsent(added.topicPath, added) != null) {
+                throw new IOException("Logged FAQ edit " + recordSequence + " does not apply, FAQ topic already exists: "
+                        + String.join(" / ", added.topicPath));
+            }
+            (section == null ? topLevel : section.subsections).add(added);
+        } else if (type == ADD_ITEM) {
+            section.items.add(new FAQItem(readString(in), readString(in)));
+        } else {
+            throw new IOException("Unknown FAQ edit type " + type + " in " + logPath);
+        }
+    }
+
+    /**
+     * Appends an added section to the change log. The record is forced to disk before returning.
+     *
+     * @param parentPath the topic path of the parent section, or an empty list for a top-level section
+     * @param topic      the topic of the added section
+     * @param isPrivate  whether the added section is private
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void logSection(List<String> parentPath, String topic, boolean isPrivate) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(sequence + 1);
+        out.writeByte(ADD_SECTION);
+        writePath(out, parentPath);
+        writeString(out, topic);
+        out.writeBoolean(isPrivate);
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Appends an added item to the change log. The record is forced to disk before returning.
+     *
+     * @param topicPath the topic path of the section the item is added to
+     * @param question  the question of the added item
+     * @param answer    the answer to the added item
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void logItem(List<String> topicPath, String question, String answer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(sequence + 1);
+        out.writeByte(ADD_ITEM);
+        writePath(out, topicPath);
+        writeString(out, question);
+        writeString(out, answer);
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * Appends a record to the change log, preceded by its length and checksum, and forces it to disk.
+     * If the record cannot be written completely, the log is cut back so that it ends with the previous record.
+     *
+     * @param record the record of the edit
+     * @throws IOException if the record cannot be written
+     */
+    private void append(byte[] record) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + record.length);
+        buffer.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+        long start = log.position();
+        try {
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            log.truncate(start);
+            log.position(start);
+            throw e;
+        }
+        sequence++;
+        editsSinceSnapshot++;
+    }
+
+    /**
+     * Writes a snapshot of the FAQ if enough edits have been logged since the last one.
+     *
+     * @param faq the current FAQ, holding every logged edit
+     * @return true if a snapshot was written, false otherwise
+     * @throws IOException if the snapshot cannot be written; the log is kept and the edits are not lost
+     */
+    public synchronized boolean compactIfDue(FAQ faq) throws IOException {
+        if (editsSinceSnapshot < compactEvery) {
+            return false;
+        }
+        writeSnapshot(faq);
+        return true;
+    }
+
+    /**
+     * Writes a snapshot of the whole FAQ and clears the change log. The snapshot is written to a temporary
+     * file and moved over the previous one, so a crash leaves either the old or the new snapshot in place.
+     *
+     * @param faq the FAQ to store, holding every logged edit
+     * @throws IOException if the snapshot cannot be written; the log is kept and the edits are not lost
+     */
+    public synchronized void writeSnapshot(FAQ faq) throws IOException {
+        Path tempPath = snapshotPath.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream stream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeLong(sequence);
+            out.writeInt(faq.getSections().size());
+            for (FAQSection section : faq.getSections()) {
+                writeSection(out, section);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.truncate(0);
+        log.position(0);
+        log.force(true);
+        editsSinceSnapshot = 0;
+    }
+
+    /**
+     * Writes a section of a snapshot with its items and subsections.
+     *
+     * @param out     the snapshot stream
+     * @param section the section to write
+     * @throws IOException if the section cannot be written
+     */
+    private static void writeSection(DataOutputStream out, FAQSection section) throws IOException {
+        writeString(out, section.getTopic());
+        out.writeBoolean(section.isPrivate());
+        out.writeInt(section.getItems().size());
+        for (FAQItem item : section.getItems()) {
+            writeString(out, item.getQuestion());
+            writeString(out, item.getAnswer());
+        }
+        out.writeInt(section.getSubsections().size());
+        for (FAQSection subsection : section.getSubsections()) {
+            writeSection(out, subsection);
+        }
+    }
+
+    /**
+     * Writes a topic path as its number of topics followed by the topics.
+     *
+     * @param out       the stream to write to
+     * @param topicPath the topic path
+     * @throws IOException if the path cannot be written
+     */
+    private static void writePath(DataOutputStream out, List<String> topicPath) throws IOException {
+        out.writeInt(topicPath.size());
+        for (String topic : topicPath) {
+            writeString(out, topic);
+        }
+    }
+
+    /**
+     * Reads a topic path written by {@link #writePath(DataOutputStream, List)}.
+     *
+     * @param in the stream to read from
+     * @return the unmodifiable topic path
+     * @throws IOException if the path cannot be read
+     */
+    private static List<String> readPath(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> topicPath = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            topicPath.add(readString(in));
+        }
+        return List.copyOf(topicPath);
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 bytes. Unlike
+     * {@link DataOutputStream#writeUTF(String)}, answers longer than 64 KB can be written.
+     *
+     * @param out   the stream to write to
+     * @param value the string
+     * @throws IOException if the string cannot be written
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+     *
+     * @param in the stream to read from
+     * @return the string
+     * @throws IOException if the string cannot be read
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Retrieves the FAQ read from the snapshot and the change log when the store was opened.
+     *
+     * @return the recovered FAQ
+     */
+    public FAQ getRecoveredFaq() {
+        return recoveredFaq;
+    }
+
+    /**
+     * Retrieves the sequence number of the last stored edit.
+     *
+     * @return the sequence number
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retrieves the number of edits in the change log, which are replayed at the next startup.
+     *
+     * @return the number of logged edits since the last snapshot
+     */
+    public synchronized int getEditsSinceSnapshot() {
+        return editsSinceSnapshot;
+    }
+
+    /**
+     * Closes the change log. Every edit has already been forced to disk.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * A section being recovered. The snapshot and the logged edits are read into builders, so that each
+     * edit is applied in place, and the immutable sections are built once every edit has been applied.
+     */
+    private static class SectionBuilder {
+        private final String topic; // The topic of the section
+        private final boolean isPrivate; // Whether the section is private
+        private final List<String> topicPath; // The topics from the top-level section down to the section
+        private final ArrayList<FAQItem> items; // The items of the section
+        private final List<SectionBuilder> subsections; // The subsections of the section
+
+        /**
+         * Constructs a new SectionBuilder without items or subsections.
+         *
+         * @param parentPath the topic path of the parent section, or an empty list for a top-level section
+         * @param topic      the topic of the section
+         * @param isPrivate  whether the section is private
+         */
+        private SectionBuilder(List<String> parentPath, String topic, boolean isPrivate) {
+            List<String> path = new ArrayList<>(parentPath.size() + 1);
+            path.addAll(parentPath);
+            path.add(topic);
+            this.topic = topic;
+            this.isPrivate = isPrivate;
+            this.topicPath = List.copyOf(path);
+            this.items = new ArrayList<>();
+            this.subsections = new ArrayList<>();
+        }
+
+        /**
+         * Builds the immutable section with its items and subsections.
+         *
+         * @return the section
+         */
+        private FAQSection build() {
+            List<FAQSection> built = new ArrayList<>(subsections.size());
+            for (SectionBuilder subsection : subsections) {
+                built.add(subsection.build());
+            }
+            return new FAQSection(topic, isPrivate, topicPath, Collections.unmodifiableList(built),
+                    Collections.unmodifiableList(items), 0);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package model;
+
+import java.util.Properties;
+
+/**
+ * The FAQStoreConfig class holds the settings of the persistent FAQ store.
+ * The settings are read once at startup, usually from system properties such as
+ * {@code -Dfaq.storePath=/var/lib/portal/faq}. Without a store directory the FAQ is kept in memory.
+ */
+public class FAQStoreConfig {
+    public static final String STORE_PATH_PROPERTY = "faq.storePath"; // Property naming the directory of the persistent FAQ
+    public static final String COMPACT_EVERY_PROPERTY = "faq.compactEvery"; // Property for the number of logged FAQ edits between snapshots
+    private String storePath; // Directory of the persistent FAQ, or null to keep the FAQ in memory
+    private int compactEvery; // Number of FAQ edits logged before a snapshot of the FAQ is written
+
+    /**
+     * Constructs a new FAQStoreConfig with default values, keeping the FAQ in memory.
+     */
+    public FAQStoreConfig() {
+        storePath = null;
+        compactEvery = 1000;
+    }
+
+    /**
+     * Creates a FAQStoreConfig from the given properties. Missing properties keep their default values.
+     *
+     * @param properties the properties to read the settings from
+     * @return the FAQStoreConfig holding the settings
+     */
+    public static FAQStoreConfig fromProperties(Properties properties) {
+        FAQStoreConfig config = new FAQStoreConfig();
+        String storePath = properties.getProperty(STORE_PATH_PROPERTY);
+        if (storePath != null && !storePath.isBlank()) {
+            config.setStorePath(storePath);
+        }
+        config.setCompactEvery(Integer.parseInt(properties.getProperty(COMPACT_EVERY_PROPERTY,
+                String.valueOf(config.getCompactEvery()))));
+        return config;
+    }
+
+    /**
+     * Retrieves the directory of the persistent FAQ.
+     *
+     * @return the FAQ store directory, or null if the FAQ is kept in memory
+     */
+    public String getStorePath() {
+        return storePath;
+    }
+
+    /**
+     * Sets the directory of the persistent FAQ.
+     *
+     * @param storePath the FAQ store directory, or null to keep the FAQ in memory
+     */
+    public void setStorePath(String storePath) {
+        this.storePath = storePath;
+    }
+
+    /**
+     * Retrieves the number of FAQ edits logged before a snapshot of the FAQ is written.
+     *
+     * @return the number of edits between snapshots
+     */
+    public int getCompactEvery() {
+        return compactEvery;
+    }
+
+    /**
+     * Sets the number of FAQ edits logged before a snapshot of the FAQ is written. Fewer edits make
+     * startup replay less of the log, more edits write the whole FAQ less often.
+     *
+     * @param compactEvery the number of edits between snapshots
+     */
+    public void setCompactEvery(int compactEvery) {
+        this.compactEvery = compactEvery;
+    }
+}
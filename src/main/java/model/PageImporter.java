@@ -0,0 +1,121 @@
+package model;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the pages of a bulk import, either from a directory tree of txt files or from a manifest.
+ * A manifest is a JSON array of objects with a "title", a "path" to the txt file of the page and
+ * an optional "private" flag; relative paths are resolved against the directory of the manifest.
+ * Entries whose file cannot be read are skipped and reported, so they do not fail the whole import.
+ */
+public class PageImporter {
+    private List<String> skipped; // Descriptions of the entries that were skipped in the last import
+
+    /**
+     * Constructs a new PageImporter object.
+     */
+    public PageImporter() {
+        skipped = new ArrayList<>();
+    }
+
+    /**
+     * Reads every txt file in a directory tree as a page. The title of a page is the path of its
+     * file relative to the directory, without the extension, for example "week1/lecture".
+     *
+     * @param directory the directory to walk
+     * @param isPrivate whether the pages are private
+     * @return the pages, ordered by title
+     * @throws IOException if the directory cannot be walked
+     */
+    public List<Page> readDirectory(Path directory, boolean isPrivate) throws IOException {
+        skipped = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".txt"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        Map<String, Page> pages = new LinkedHashMap<>();
+        for (Path file : files) {
+            String relative = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+            String title = relative.substring(0, relative.length() - ".txt".length());
+            if (Files.isReadable(file)) {
+                pages.put(title, new Page(title, file.toString(), isPrivate));
+            } else {
+                skipped.add(title + ": cannot read " + file);
+            }
+        }
+        return new ArrayList<>(pages.values());
+    }
+
+    /**
+     * Reads the pages listed in a manifest. If a title is listed more than once, the last entry is used.
+     *
+     * @param manifest the manifest file
+     * @return the pages, in the order of the manifest
+     * @throws IOException if the manifest cannot be read or is not a JSON array
+     */
+    public List<Page> readManifest(Path manifest) throws IOException {
+        skipped = new ArrayList<>();
+        Object json;
+        try (Reader reader = Files.newBufferedReader(manifest)) {
+            json = new JSONParser().parse(reader);
+        } catch (ParseException e) {
+            throw new IOException("Invalid page manifest " + manifest, e);
+        }
+        if (!(json instanceof JSONArray)) {
+            throw new IOException("Invalid page manifest " + manifest + ": expected a list of pages");
+        }
+
+        Path base = manifest.toAbsolutePath().getParent();
+        Map<String, Page> pages = new LinkedHashMap<>();
+        int entryNo = 0;
+        for (Object entry : (JSONArray) json) {
+            entryNo++;
+            if (!(entry instanceof JSONObject)) {
+                skipped.add("entry " + entryNo + ": not a page");
+                continue;
+            }
+            JSONObject page = (JSONObject) entry;
+            Object title = page.get("title");
+            Object path = page.get("path");
+            if (!(title instanceof String) || ((String) title).isEmpty() || !(path instanceof String)) {
+                skipped.add("entry " + entryNo + ": a title and a path are required");
+                continue;
+            }
+            Path file = base.resolve((String) path);
+            if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+                skipped.add(title + ": cannot read " + file);
+                continue;
+            }
+            boolean isPrivate = Boolean.TRUE.equals(page.get("private"));
+            pages.remove(title);
+            pages.put((String) title, new Page((String) title, file.toString(), isPrivate));
+        }
+        return new ArrayList<>(pages.values());
+    }
+
+    /**
+     * Retrieves the entries that were skipped in the last import, with the reason they were skipped.
+     *
+     * @return a list of descriptions of the skipped entries
+     */
+    public List<String> getSkipped() {
+        return skipped;
+    }
+}
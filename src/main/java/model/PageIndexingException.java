@@ -0,0 +1,35 @@
+package model;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Signals that some pages of a batch could not be indexed. The other pages of the batch were indexed
+ * and are searched, so the caller must register exactly the pages returned by {@link #getIndexedPages()}.
+ */
+public class PageIndexingException extends IOException {
+    private static final long serialVersionUID = 1L; // Version of the serialized form
+    private final List<Page> indexedPages; // The pages of the batch that were indexed
+
+    /**
+     * Constructs a new PageIndexingException.
+     *
+     * @param message      the detail message
+     * @param cause        the error of the first page that could not be indexed
+     * @param indexedPages the pages of the batch that were indexed
+     */
+    public PageIndexingException(String message, Throwable cause, List<Page> indexedPages) {
+        super(message, cause);
+        this.indexedPages = Collections.unmodifiableList(indexedPages);
+    }
+
+    /**
+     * Retrieves the pages of the batch that were indexed despite the failure.
+     *
+     * @return the indexed pages
+     */
+    public List<Page> getIndexedPages() {
+        return indexedPages;
+    }
+}
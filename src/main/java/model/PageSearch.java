@@ -3,66 +3,618 @@ package model;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.queryparser.classic.ParseException;
-import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.Scorable;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
+import org.apache.lucene.search.similarities.Similarity;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.BreakIterator;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Implements a page indexing and searching mechanism using Apache Lucene.
  * This class encapsulates the functionality to index provided pages and perform searches
- * over these indexed pages.
+ * over these indexed pages. A single instance is kept for the lifetime of the application
+ * and updated incrementally as pages are added. The index is either kept in memory or, when
+ * a persistent index directory is configured, memory-mapped from disk and reused across restarts.
+ * By default the pages are indexed, and common queries replayed to warm the index, on a background
+ * thread at startup. Searches issued before the index is ready wait for it for a bounded time, and
+ * then search the pages indexed so far.
  */
 
-public class PageSearch {
+public class PageSearch implements Closeable {
+    private static final Query PUBLIC_ONLY = new TermQuery(new Term("private", "false")); // Filter matching paragraphs of public pages
+    private static final Set<String> PAGE_FIELDS = Set.of("title", "path", "private", "fingerprint", "format"); // Stored fields describing a page
+    private static final Set<String> RESULT_FIELDS = Set.of("title", "paragraph"); // Stored fields loaded for every hit
+    private static final Set<String> CONTENT_FIELDS = Set.of("content"); // Stored fields loaded when a result is displayed
+    private static final String INDEX_FORMAT = "2"; // Version of the indexed fields, pages indexed with another version are indexed again
+    private static final FieldType CONTENT_TYPE = createContentType(); // Stored text with offsets in the postings for highlighting
     private StandardAnalyzer analyzer; // The analyzer used for indexing and searching
     private Directory index; // The Lucene index directory
+    private boolean persistent; // Whether the index is stored on disk and must be committed after changes
     private HashMap<String, Page> pages; // HashMap to store pages
-    private List<PageSearchResult> searchResults; // List to store search results
-    final int maxResults = 10; // Maximum number of search results to return
+    private IndexWriter writer; // The long-lived writer used to keep the index up to date
+    private SearcherManager searcherManager; // Shares one near-real-time searcher between searches
+    private SearchResultCache resultCache; // Results of recent searches, invalidated when pages change
+    private Map<String, Query> compiledQueries; // Recently compiled queries by query string, in least-recently-used order
+    private Map<String, Float> fieldBoosts; // Weights of query matches in each searched field
+    private Similarity similarity; // The scoring model used for indexing and searching
+    private int snippetLength; // Target length in characters of the snippet shown for a result
+    private int indexThreads; // Number of threads reading and analyzing pages when many are indexed at once
+    private PageSuggester suggester; // Suggests completions and spelling corrections of queries
+    private ExecutorService searchExecutor; // Threads searching segment slices of one query in parallel, or null
+    private volatile SearcherHighlighter highlighter; // The highlighter of the searcher that loaded the last snippet
+    private SearchMetrics metrics; // Latency histograms of the search stages and search counters
+    private CompletableFuture<Void> ready; // Completes when the pages are indexed and the index is warmed
+    private AtomicBoolean startupErrorReported; // Whether the startup error was retrieved to be reported
+    private long readyTimeoutMillis; // Time in milliseconds a search waits for the index to be ready
+    private List<String> warmUpQueries; // Common queries replayed once the pages are indexed
+    private int warmUpPageSize; // Number of results collected for each warm-up query
+    final int maxResults = 10; // Maximum number of search results to return when no page size is given
 
     /**
-     * Initializes a new instance of PageSearch, indexing the provided pages.
-     * This constructor sets up the analyzer, creates a Lucene index in memory, and indexes
-     * the provided pages by reading their content from specified file paths.
+     * Initializes a new instance of PageSearch, indexing the provided pages in memory.
      *
      * @param pages A HashMap mapping page identifiers to Page objects. Each page is indexed
      *              by its title and content for search operations.
      * @throws IOException if an I/O error occurs
      */
     public PageSearch(HashMap<String, Page> pages) throws IOException {
+        this(pages, new SearchConfig());
+    }
+
+    /**
+     * Initializes a new instance of PageSearch, indexing the provided pages.
+     * This constructor sets up the analyzer, opens the Lucene index configured by the given settings,
+     * and indexes the provided pages by reading their content from specified file paths.
+     * When a persistent index already exists, only pages whose file size or modification time changed
+     * since they were indexed are read again. Pages indexed in an earlier run that are missing from
+     * the given map are added back to it, unless their file no longer exists.
+     * If the settings ask for an asynchronous startup, the pages are indexed and the index warmed on a
+     * background thread, and an error while indexing is reported by {@link #getStartupError()} instead.
+     *
+     * @param pages        A HashMap mapping page identifiers to Page objects. Each page is indexed
+     *                     by its title and content for search operations.
+     * @param searchConfig the settings of the search subsystem
+     * @throws IOException if an I/O error occurs
+     */
+    public PageSearch(HashMap<String, Page> pages, SearchConfig searchConfig) throws IOException {
         this.analyzer = new StandardAnalyzer();
-        this.index = new ByteBuffersDirectory();
+        this.persistent = searchConfig.isPersistent();
         this.pages = pages;
+        this.resultCache = new SearchResultCache(searchConfig.getCacheSize(), searchConfig.getCacheMaxAgeSeconds());
+        this.snippetLength = searchConfig.getSnippetLength();
+        this.fieldBoosts = Map.of("content", searchConfig.getContentBoost(), "titleText", searchConfig.getTitleBoost());
+        this.similarity = searchConfig.createSimilarity();
+        this.indexThreads = Math.max(1, searchConfig.getIndexThreads());
+        this.readyTimeoutMillis = searchConfig.getReadyTimeoutMillis();
+        this.metrics = new SearchMetrics();
+        this.warmUpQueries = new ArrayList<>(searchConfig.getWarmUpQueries());
+        this.warmUpPageSize = searchConfig.getWarmUpPageSize();
+        int compiledQueryLimit = searchConfig.getCacheSize();
+        this.compiledQueries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+                return size() > compiledQueryLimit;
+            }
+        });
+
+        try {
+            if (persistent) {
+                this.index = new MMapDirectory(Paths.get(searchConfig.getIndexPath()));
+            } else {
+                this.index = new ByteBuffersDirectory();
+            }
+            IndexWriterConfig config = new IndexWriterConfig(analyzer);
+            config.setRAMBufferSizeMB(searchConfig.getRamBufferMB());
+            config.setSimilarity(similarity);
+            this.writer = new IndexWriter(index, config);
+
+            // Finding the pages to index
+            List<Page> addedPages = new ArrayList<>();
+            List<Page> changedPages = new ArrayList<>();
+            try {
+                Map<String, Document> indexedPages = readIndexedPages();
+
+                // Restoring pages registered in an earlier run
+                for (Document doc : indexedPages.values()) {
+                    String title = doc.get("title");
+                    if (!this.pages.containsKey(title)) {
+                        if (Files.exists(Paths.get(doc.get("path")))) {
+                            this.pages.put(title, new Page(title, doc.get("path"), Boolean.parseBoolean(doc.get("private"))));
+                        } else {
+                            writer.deleteDocuments(new Term("title", title));
+                        }
+                    }
+                }
+
+                for (Page page : this.pages.values()) {
+                    // assert page.getTitle() != null : "Page title cannot be null";
+                    // assert page.getContent() != null : "Page content cannot be null";
+                    Document indexedPage = indexedPages.get(page.getTitle());
+                    if (indexedPage == null) {
+                        addedPages.add(page);
+                    } else if (!isUpToDate(page, indexedPage)) {
+                        changedPages.add(page);
+                    }
+                }
+                if (!searchConfig.isAsyncStartup()) {
+                    writePages(addedPages, changedPages);
+                    writer.commit();
+                }
+            } catch (IOException e) {
+                throw new IOException("Error indexing pages", e);
+            }
+            if (searchConfig.getSearchThreads() > 0) {
+                this.searchExecutor = Executors.newFixedThreadPool(searchConfig.getSearchThreads(), runnable -> {
+                    Thread thread = new Thread(runnable, "page-search");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            this.searcherManager = new SearcherManager(writer, new PageSearcherFactory(searchExecutor,
+                    searchConfig.getSliceMaxDocs(), searchConfig.getSliceMaxSegments(), similarity));
+            this.suggester = new PageSuggester(searcherManager, analyzer, PUBLIC_ONLY);
+
+            this.startupErrorReported = new AtomicBoolean();
+            if (searchConfig.isAsyncStartup()) {
+                // Until the pages are indexed, searches see the pages committed in an earlier run
+                this.ready = new CompletableFuture<>();
+                Thread startup = new Thread(() -> startUp(addedPages, changedPages), "page-search-startup");
+                startup.setDaemon(true);
+                startup.start();
+            } else {
+                warmUp();
+                this.ready = CompletableFuture.completedFuture(null);
+            }
+        } catch (IOException | RuntimeException e) {
+            closeAfterFailedStart(e);
+            throw e;
+        }
+        // Reporting only starts once nothing can fail, so a failed constructor leaves no thread behind
+        if (searchConfig.getMetricsReportSeconds() > 0) {
+            metrics.startReporting(searchConfig.getMetricsReportSeconds(), System.err);
+        }
+    }
+
+    /**
+     * Closes what the constructor opened before it failed, so that a persistent index is not left locked.
+     * Errors while closing are added to the error that stopped the constructor.
+     *
+     * @param failure the error that stopped the constructor
+     */
+    private void closeAfterFailedStart(Exception failure) {
+        for (Closeable resource : new Closeable[]{suggester, searcherManager, writer, index}) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (IOException | RuntimeException e) {
+                failure.addSuppressed(e);
+            }
+        }
+        if (searchExecutor != null) {
+            searchExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Indexes the given pages, warms the index and rebuilds the suggesters on the startup thread, then
+     * marks the index as ready.
+     *
+     * @param addedPages   the pages that are not in the index yet
+     * @param changedPages the pages whose indexed paragraphs are replaced
+     */
+    private void startUp(Collection<Page> addedPages, Collection<Page> changedPages) {
+        Future<?> suggesterRebuild = null;
+        try {
+            try {
+                writePages(addedPages, changedPages);
+                writer.commit();
+            } finally {
+                // The pages indexed before a failure are still searched
+                searcherManager.maybeRefresh();
+                resultCache.invalidate();
+                suggesterRebuild = suggester.scheduleRebuild();
+            }
+            warmUp();
+            suggesterRebuild.get();
+            ready.complete(null);
+        } catch (IOException | RuntimeException | ExecutionException e) {
+            System.err.println("Error indexing pages: " + e.getMessage());
+            ready.completeExceptionally(new IOException("Error indexing pages", e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ready.completeExceptionally(new InterruptedIOException("Interrupted while indexing pages"));
+        }
+    }
+
+    /**
+     * Replays the warm-up queries, so their first page of results is cached and the parts of the index
+     * they read are loaded before the first user searches. Queries that cannot be compiled are skipped.
+     * The warm-up searches are recorded in metrics of their own and put in the cache without a lookup,
+     * so the search metrics and the cache counters only count the searches of users.
+     *
+     * @throws IOException if a warm-up query cannot be searched, or the snippet of one of its results cannot be loaded
+     */
+    private void warmUp() throws IOException {
+        SearchMetrics warmUpMetrics = new SearchMetrics();
+        for (String queryString : warmUpQueries) {
+            Query query;
+            try {
+                query = parseQuery(queryString);
+            } catch (ParseException e) {
+                // A query that cannot be compiled does not keep the index from being ready
+                continue;
+            }
+            for (boolean includePrivate : new boolean[]{false, true}) {
+                SearchResultCache.Key cacheKey = SearchResultCache.key(query, includePrivate, warmUpPageSize, true);
+                long cacheGeneration = resultCache.getGeneration();
+                PageSearchResults results;
+                try {
+                    results = searchCollapsed(query, includePrivate, null, warmUpPageSize, 0, warmUpMetrics);
+                } catch (Exception e) {
+                    throw new IOException("Error warming up the index with query " + queryString, e);
+                }
+                resultCache.put(cacheKey, results, cacheGeneration);
+                for (PageSearchResult result : results.getResults()) {
+                    loadSnippet(result, warmUpMetrics);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the pages are indexed and the index is warmed. An index whose startup failed is not ready.
+     *
+     * @return true if the index is ready, false otherwise
+     */
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    /**
+     * Waits for the pages to be indexed and the index to be warmed.
+     *
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     * @return true if the index is ready, false if the time ran out or the startup failed
+     */
+    public boolean awaitReady(long timeoutMillis) {
+        try {
+            ready.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Waits for the index to be ready for at most the configured timeout, recording the time waited.
+     */
+    private void waitForIndex() {
+        if (!ready.isDone()) {
+            long start = System.nanoTime();
+            awaitReady(readyTimeoutMillis);
+            metrics.record(SearchMetrics.Stage.WAIT, start);
+        }
+    }
+
+    /**
+     * Retrieves the error that stopped the pages from being indexed at startup.
+     *
+     * @return the error, or null if the startup succeeded or has not finished
+     */
+    public IOException getStartupError() {
+        try {
+            ready.getNow(null);
+            return null;
+        } catch (CompletionException e) {
+            return (IOException) e.getCause();
+        }
+    }
+
+    /**
+     * Retrieves the error that stopped the pages from being indexed at startup, the first time it is asked
+     * for, so that it is reported to the user once.
+     *
+     * @return the error, or null if the startup succeeded, has not finished, or its error was already retrieved
+     */
+    public IOException pollStartupError() {
+        IOException error = getStartupError();
+        return error != null && startupErrorReported.compareAndSet(false, true) ? error : null;
+    }
+
+    /**
+     * Waits until the startup has finished, successfully or not, so that pages added later are not
+     * overwritten by the pages indexed at startup.
+     */
+    private void awaitStartup() {
+        try {
+            ready.get();
+        } catch (ExecutionException e) {
+            // The error is reported by getStartupError
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads the stored page fields of one paragraph of every page in the index.
+     *
+     * @return a map from page title to a document holding the stored page fields
+     * @throws IOException if an I/O error occurs
+     */
+    private Map<String, Document> readIndexedPages() throws IOException {
+        Map<String, Document> indexedPages = new HashMap<>();
+        try (DirectoryReader reader = DirectoryReader.open(writer)) {
+            for (LeafReaderContext leaf : reader.leaves()) {
+                Terms terms = leaf.reader().terms("title");
+                if (terms == null) {
+                    continue;
+                }
+                Bits liveDocs = leaf.reader().getLiveDocs();
+                StoredFields storedFields = leaf.reader().storedFields();
+                TermsEnum termsEnum = terms.iterator();
+                PostingsEnum postings = null;
+                BytesRef term;
+                while ((term = termsEnum.next()) != null) {
+                    String title = term.utf8ToString();
+                    if (indexedPages.containsKey(title)) {
+                        continue;
+                    }
+                    // The first live paragraph of the page is enough, all paragraphs store the same page fields
+                    postings = termsEnum.postings(postings, PostingsEnum.NONE);
+                    for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+                        if (liveDocs == null || liveDocs.get(doc)) {
+                            indexedPages.put(title, storedFields.document(doc, PAGE_FIELDS));
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return indexedPages;
+    }
+
+    /**
+     * Checks if the indexed paragraphs of a page still match the page and its file on disk.
+     *
+     * @param page        the page to check
+     * @param indexedPage a document holding the stored page fields of the indexed page
+     * @return true if the page does not need to be indexed again, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean isUpToDate(Page page, Document indexedPage) throws IOException {
+        return page.getContent().equals(indexedPage.get("path"))
+                && String.valueOf(page.isPrivate()).equals(indexedPage.get("private"))
+                && fingerprint(page.getContent()).equals(indexedPage.get("fingerprint"))
+                && INDEX_FORMAT.equals(indexedPage.get("format"));
+    }
 
-        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+    /**
+     * Computes a cheap fingerprint of a page file from its size and modification time.
+     *
+     * @param path the address of the txt file of the page
+     * @return the fingerprint of the file
+     * @throws IOException if an I/O error occurs
+     */
+    private static String fingerprint(String path) throws IOException {
+        Path file = Paths.get(path);
+        return Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+    }
 
-        // Indexing the pages
-        try (IndexWriter writer = new IndexWriter(index, config)) {
-            for (Page page : this.pages.values()) {
-                // assert page.getTitle() != null : "Page title cannot be null";
-                // assert page.getContent() != null : "Page content cannot be null";
-                addDoc(writer, page.getTitle(), page.getContent());
+    /**
+     * Adds a single page to the index without re-indexing the rest of the pages.
+     * If a page with the same title is already indexed, its paragraphs are atomically replaced
+     * by the paragraphs of the new page. The shared searcher is then refreshed so the change
+     * is visible to the next search without a rebuild. A persistent index is also committed.
+     * The page is not added to the pages map; that is left to the caller. If the index is still
+     * being built at startup, the page is added once it is built.
+     *
+     * @param page the page to index
+     * @throws IOException if an I/O error occurs
+     */
+    public void addPage(Page page) throws IOException {
+        awaitStartup();
+        // An unreadable page leaves the index untouched, the paragraphs are only added once all were read
+        long start = System.nanoTime();
+        writePage(writer, page, true);
+        metrics.record(SearchMetrics.Stage.INDEX, start);
+        try {
+            if (persistent) {
+                writer.commit();
             }
+            searcherManager.maybeRefresh();
+            resultCache.invalidate();
+            suggester.scheduleRebuild();
         } catch (IOException e) {
-            throw new IOException("Error indexing pages", e);
+            throw new IOException("Error indexing page " + page.getTitle(), e);
+        }
+    }
+
+    /**
+     * Adds many pages to the index at once, reading and analyzing them in parallel.
+     * Pages with the same title as an indexed page replace it, as in {@link #addPage(Page)}.
+     * The index is committed and the shared searcher refreshed once, after all pages are indexed.
+     * If some pages cannot be read, every other page of the batch is still indexed and searched, and a
+     * {@link PageIndexingException} names the pages that were indexed. The pages are not added to the pages map; that is left to the caller. If the index is still
+     * being built at startup, the pages are added once it is built.
+     *
+     * @param newPages the pages to index
+     * @throws PageIndexingException if some of the pages cannot be read
+     * @throws IOException           if an I/O error occurs
+     */
+    public void addPages(Collection<Page> newPages) throws IOException {
+        awaitStartup();
+        try {
+            writePages(Collections.emptyList(), newPages);
+            if (persistent) {
+                writer.commit();
+            }
+        } finally {
+            searcherManager.maybeRefresh();
+            resultCache.invalidate();
+            suggester.scheduleRebuild();
+        }
+    }
+
+    /**
+     * Indexes pages on a bounded pool of threads that all feed the shared index writer.
+     * The index writer is thread-safe and gives each thread its own in-memory segment, so reading
+     * and analyzing the pages scales with the number of threads. With a single thread, or a single
+     * page, the pages are indexed on the calling thread.
+     *
+     * @param addedPages   the pages that are not in the index yet
+     * @param changedPages the pages whose indexed paragraphs are replaced
+     * @throws IOException if a page cannot be read or an I/O error occurs
+     */
+    private void writePages(Collection<Page> addedPages, Collection<Page> changedPages) throws IOException {
+        long start = System.nanoTime();
+        try {
+            writePagesInParallel(addedPages, changedPages);
+        } finally {
+            metrics.record(SearchMetrics.Stage.INDEX, start);
+        }
+    }
+
+    /**
+     * Indexes pages on a bounded pool of threads, or on the calling thread if a single thread is enough.
+     * A page that cannot be read does not stop the other pages from being indexed.
+     *
+     * @param addedPages   the pages that are not in the index yet
+     * @param changedPages the pages whose indexed paragraphs are replaced
+     * @throws PageIndexingException if some of the pages cannot be read
+     * @throws IOException           if an I/O error occurs
+     */
+    private void writePagesInParallel(Collection<Page> addedPages, Collection<Page> changedPages) throws IOException {
+        List<Page> indexedPages = Collections.synchronizedList(new ArrayList<>());
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Page page : addedPages) {
+            tasks.add(() -> {
+                writePage(writer, page, false);
+                indexedPages.add(page);
+                return null;
+            });
+        }
+        for (Page page : changedPages) {
+            tasks.add(() -> {
+                writePage(writer, page, true);
+                indexedPages.add(page);
+                return null;
+            });
+        }
+
+        Throwable failure = null;
+        int failed = 0;
+        int threads = Math.min(indexThreads, tasks.size());
+        if (threads <= 1) {
+            for (Callable<Void> task : tasks) {
+                try {
+                    task.call();
+                } catch (Exception e) {
+                    failure = failure == null ? e : failure;
+                    failed++;
+                }
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        failure = failure == null ? e.getCause() : failure;
+                        failed++;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while indexing pages");
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        if (failure != null) {
+            throw new PageIndexingException("Error indexing " + failed + " of " + tasks.size() + " pages: "
+                    + failure.getMessage(), failure, new ArrayList<>(indexedPages));
         }
     }
 
@@ -75,76 +627,554 @@ public class PageSearch {
      * @throws IOException if an I/O error occurs
      */
     public void addDoc(IndexWriter w, String title, String content) throws IOException {
-        // Reading the content of the page from the specified file path
-        StringBuilder contentBuilder = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(new FileReader(content))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                contentBuilder.append(line).append("\n");
-            }
+        Page page = pages.get(title);
+        writePage(w, new Page(title, content, page != null && page.isPrivate()), false);
+    }
+
+    /**
+     * Indexes the paragraphs of a page, streaming them from its file to the index writer one at a time,
+     * so only one paragraph of the page is held in memory. The paragraphs are added as one block: if the
+     * file cannot be read to the end, none of them is added and the previously indexed paragraphs are kept.
+     *
+     * @param w       the IndexWriter to use
+     * @param page    the page to index
+     * @param replace whether the paragraphs previously indexed for the page are replaced
+     * @throws IOException if an I/O error occurs
+     */
+    private void writePage(IndexWriter w, Page page, boolean replace) throws IOException {
+        String path = page.getContent();
+        ParagraphReader paragraphs;
+        try {
+            paragraphs = new ParagraphReader(new FileReader(path));
         } catch (IOException e) {
             throw new IOException("Error reading page content", e);
         }
+        try (paragraphs) {
+            String fingerprint = fingerprint(path);
+            Iterable<Document> docs = () -> new ParagraphDocuments(page, fingerprint, paragraphs);
+            if (replace) {
+                w.updateDocuments(new Term("title", page.getTitle()), docs);
+            } else {
+                w.addDocuments(docs);
+            }
+        } catch (UncheckedIOException e) {
+            throw new IOException("Error reading page content", e.getCause());
+        }
+    }
 
-        String contentString = contentBuilder.toString();
+    /**
+     * Creates the document of one paragraph of a page. Every paragraph also stores the page fields
+     * needed to restore the page and to detect changes to its file when a persistent index is reopened.
+     *
+     * @param page        the page containing the paragraph
+     * @param position    the position of the paragraph in the page, starting at 0
+     * @param paragraph   the text of the paragraph
+     * @param fingerprint the fingerprint of the page file
+     * @return the document of the paragraph
+     */
+    private static Document createDoc(Page page, int position, String paragraph, String fingerprint) {
+        Document doc = new Document();
+        doc.add(new StringField("title", page.getTitle(), Field.Store.YES));
+        doc.add(new SortedDocValuesField("title", new BytesRef(page.getTitle())));
+        doc.add(new TextField("titleText", page.getTitle(), Field.Store.NO));
+        doc.add(new IntPoint("paragraph", position));
+        doc.add(new StoredField("paragraph", position));
+        doc.add(new Field("content", paragraph, CONTENT_TYPE));
+        doc.add(new StoredField("path", page.getContent()));
+        doc.add(new StringField("private", String.valueOf(page.isPrivate()), Field.Store.YES));
+        doc.add(new StoredField("fingerprint", fingerprint));
+        doc.add(new StoredField("format", INDEX_FORMAT));
+        return doc;
+    }
 
-        // Splitting content into paragraphs to index each separately for more granular search results
-        String[] paragraphs = contentString.split("\\n\\n+");
+    /**
+     * Compiles a query string into a Lucene query over the paragraph text and the page title, each
+     * weighted by its configured boost, so a paragraph of a page whose title matches ranks higher.
+     * The same query is used to validate the user's input and to run the search, so a query that
+     * compiles can always be searched. Compiled queries are reused when the same query string is compiled again.
+     *
+     * @param queryString The user's query string, which may contain phrases, wildcards and operators.
+     * @return the compiled query
+     * @throws ParseException if the query string is not a valid query
+     */
+    public Query compileQuery(String queryString) throws ParseException {
+        long start = System.nanoTime();
+        Query query = parseQuery(queryString);
+        metrics.record(SearchMetrics.Stage.PARSE, start);
+        return query;
+    }
 
-        for (String paragraph : paragraphs) {
-            if (!paragraph.trim().isEmpty()) { // Ignore empty paragraphs
-                Document doc = new Document();
-                doc.add(new StringField("title", title, Field.Store.YES));
-                doc.add(new TextField("content", paragraph, Field.Store.YES));
-                w.addDocument(doc);
-            }
+    /**
+     * Compiles a query string as {@link #compileQuery(String)} does, without recording the time taken.
+     *
+     * @param queryString the query string
+     * @return the compiled query
+     * @throws ParseException if the query string is not a valid query
+     */
+    private Query parseQuery(String queryString) throws ParseException {
+        String normalized = queryString.trim().replaceAll("\\s+", " ");
+        Query query = compiledQueries.get(normalized);
+        if (query == null) {
+            query = new MultiFieldQueryParser(new String[]{"content", "titleText"}, analyzer, fieldBoosts)
+                    .parse(normalized);
+            compiledQueries.put(normalized, query);
         }
+        return query;
     }
 
     /**
-     * Searches the indexed pages for paragraphs matching the given query string. This method
-     * parses the query string into a Lucene query, performs the search, and collects up to a
-     * predefined number of top scoring hits as search results.
+     * Searches all indexed pages, including private ones.
      *
      * @param queryString The user's query string to search for in the indexed content.
      * @return A collection of PageSearchResult objects, each representing a matching paragraph
-     * including its title and a snippet of content containing the search query.
      * @throws Exception if an error occurs during the search operation
+     * @see #search(Query, boolean)
      */
-
     public Collection<PageSearchResult> search(String queryString) throws Exception {
-        searchResults = new ArrayList<>();
+        return search(queryString, true);
+    }
 
+    /**
+     * Compiles the query string and searches the indexed pages.
+     *
+     * @param queryString    The user's query string to search for in the indexed content.
+     * @param includePrivate Whether paragraphs of private pages may be returned.
+     * @return A collection of PageSearchResult objects, each representing a matching paragraph
+     * @throws Exception if the query string is invalid or an error occurs during the search operation
+     * @see #search(Query, boolean)
+     */
+    public Collection<PageSearchResult> search(String queryString, boolean includePrivate) throws Exception {
         try {
-            // Parsing the query string to handle complex search queries like phrases or wildcards
-            Query query = new QueryParser("content", analyzer).parse(queryString);
-            IndexSearcher searcher = new IndexSearcher(DirectoryReader.open(index));
-            TopDocs results = searcher.search(query, maxResults);
+            return search(compileQuery(queryString), includePrivate);
+        } catch (ParseException e) {
+            throw new Exception("Error searching pages", e);
+        }
+    }
 
-            List<String> titles = new ArrayList<>();
-            List<String> contents = new ArrayList<>();
+    /**
+     * Searches the indexed pages for paragraphs matching the given compiled query, and collects up to a
+     * predefined number of top scoring hits as search results.
+     *
+     * @param query          The query compiled by {@link #compileQuery(String)}.
+     * @param includePrivate Whether paragraphs of private pages may be returned.
+     * @return A collection of PageSearchResult objects, each representing a matching paragraph
+     * including its title and a snippet of content containing the search query.
+     * @throws Exception if an error occurs during the search operation
+     * @see #search(Query, boolean, int)
+     */
+    public Collection<PageSearchResult> search(Query query, boolean includePrivate) throws Exception {
+        return search(query, includePrivate, maxResults).getResults();
+    }
 
-            // Collecting search results
-            for (ScoreDoc scoreDoc : results.scoreDocs) {
-                Document doc = searcher.doc(scoreDoc.doc);
-                String title = doc.get("title");
-                String content = doc.get("content");
+    /**
+     * Searches the indexed pages for paragraphs matching the given compiled query, and returns the first
+     * page of results. Only as many hits as fit on the page are collected and loaded. First pages of
+     * recent searches are answered from a cache without scoring the query again. If the index is
+     * not ready, the search waits for it for a bounded time and then searches the pages indexed so far.
+     *
+     * @param query          The query compiled by {@link #compileQuery(String)}.
+     * @param includePrivate Whether paragraphs of private pages may be returned.
+     * @param pageSize       The maximum number of results to return.
+     * @return the first page of results, with a cursor to fetch the next page
+     * @throws Exception if an error occurs during the search operation
+     */
+    public PageSearchResults search(Query query, boolean includePrivate, int pageSize) throws Exception {
+        waitForIndex();
+        long start = System.nanoTime();
+        SearchResultCache.Key cacheKey = SearchResultCache.key(query, includePrivate, pageSize);
+        PageSearchResults results = resultCache.get(cacheKey);
+        boolean cacheHit = results != null;
+        if (!cacheHit) {
+            long cacheGeneration = resultCache.getGeneration();
+            results = searchAfter(query, includePrivate, null, pageSize, 0);
+            resultCache.put(cacheKey, results, cacheGeneration);
+        }
+        metrics.record(SearchMetrics.Stage.SEARCH, start);
+        metrics.recordSearch(results.getResults().size(), cacheHit);
+        return results;
+    }
 
-                titles.add(title);
-                contents.add(content);
+    /**
+     * Searches the indexed pages and returns the first page of results, keeping only the best
+     * matching paragraph of each page, so one long page cannot fill every result slot. Each result
+     * counts the other matching paragraphs of its page. Results are cached, and wait for the index
+     * to be ready, like those of {@link #search(Query, boolean, int)}.
+     *
+     * @param query          the compiled query
+     * @param includePrivate whether paragraphs of private pages may be returned
+     * @param pageSize       the maximum number of pages to return
+     * @return the first page of collapsed results
+     * @throws Exception if an error occurs during the search operation
+     */
+    public PageSearchResults searchCollapsed(Query query, boolean includePrivate, int pageSize) throws Exception {
+        waitForIndex();
+        return firstCollapsedPage(query, includePrivate, pageSize);
+    }
+
+    /**
+     * Returns the first page of collapsed results from the cache, or searches and caches it.
+     * The search is counted in the metrics.
+     *
+     * @param query          the compiled query
+     * @param includePrivate whether paragraphs of private pages may be returned
+     * @param pageSize       the maximum number of pages to return
+     * @return the first page of collapsed results
+     * @throws Exception if an error occurs during the search operation
+     */
+    private PageSearchResults firstCollapsedPage(Query query, boolean includePrivate, int pageSize) throws Exception {
+        long start = System.nanoTime();
+        SearchResultCache.Key cacheKey = SearchResultCache.key(query, includePrivate, pageSize, true);
+        PageSearchResults results = resultCache.get(cacheKey);
+        boolean cacheHit = results != null;
+        if (!cacheHit) {
+            long cacheGeneration = resultCache.getGeneration();
+            results = searchCollapsed(query, includePrivate, null, pageSize, 0, metrics);
+            resultCache.put(cacheKey, results, cacheGeneration);
+        }
+        metrics.record(SearchMetrics.Stage.SEARCH, start);
+        metrics.recordSearch(results.getResults().size(), cacheHit);
+        return results;
+    }
+
+    /**
+     * Fetches the page of results following the given page, continuing after its last hit.
+     *
+     * @param previous the previous page of results
+     * @return the next page of results
+     * @throws Exception if an error occurs during the search operation
+     */
+    public PageSearchResults searchNext(PageSearchResults previous) throws Exception {
+        PageSearchResults results;
+        int offset = previous.getOffset() + previous.getResults().size();
+        if (previous.isCollapsed()) {
+            results = searchCollapsed(previous.getQuery(), previous.isIncludePrivate(), previous.getLast(),
+                    previous.getPageSize(), offset, metrics);
+        } else {
+            results = searchAfter(previous.getQuery(), previous.isIncludePrivate(), previous.getLast(),
+                    previous.getPageSize(), offset);
+        }
+        return results;
+    }
+
+    /**
+     * Collects one page of hits after the given hit and loads their stored fields.
+     *
+     * @param query          the compiled query
+     * @param includePrivate whether paragraphs of private pages may be returned
+     * @param after          the last hit of the previous page, or null for the first page
+     * @param pageSize       the maximum number of results to return
+     * @param offset         the number of results shown before this page
+     * @return the page of results
+     * @throws Exception if an error occurs during the search operation
+     */
+    private PageSearchResults searchAfter(Query query, boolean includePrivate, ScoreDoc after, int pageSize,
+                                          int offset) throws Exception {
+        List<PageSearchResult> results = new ArrayList<>();
+        ScoreDoc last = null;
+        boolean hasMore;
+
+        try {
+            Query filteredQuery = query;
+            if (!includePrivate) {
+                // Private pages are filtered out in the index, the filter does not affect scoring
+                filteredQuery = new BooleanQuery.Builder()
+                        .add(query, BooleanClause.Occur.MUST)
+                        .add(PUBLIC_ONLY, BooleanClause.Occur.FILTER)
+                        .build();
             }
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                long start = System.nanoTime();
+                TopDocs topDocs = searcher.searchAfter(after, filteredQuery, pageSize);
+                metrics.record(SearchMetrics.Stage.SCORE, start);
 
-            // Formatting search results
-            for (int i = 0; i < titles.size(); i++) {
-                String formattedContent = "Title: " + titles.get(i) + "\n" + contents.get(i) + "\n";
-                searchResults.add(new PageSearchResult(formattedContent));
+                // Collecting search results, the paragraph text is only loaded when a result is displayed
+                start = System.nanoTime();
+                StoredFields storedFields = searcher.storedFields();
+                long readerVersion = ((DirectoryReader) searcher.getIndexReader()).getVersion();
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    Document doc = storedFields.document(scoreDoc.doc, RESULT_FIELDS);
+                    int paragraph = doc.getField("paragraph").numericValue().intValue();
+                    results.add(new PageSearchResult(this, query, doc.get("title"), paragraph, scoreDoc.score, scoreDoc.doc,
+                            readerVersion));
+                    last = scoreDoc;
+                }
+                metrics.record(SearchMetrics.Stage.LOAD, start);
+
+                // The total hit count may only be a lower bound, in which case a full page may have a next page
+                TotalHits totalHits = topDocs.totalHits;
+                hasMore = topDocs.scoreDocs.length == pageSize
+                        && (totalHits.relation == TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO
+                        || totalHits.value > offset + pageSize);
+            } finally {
+                // The searcher must always be released so that old readers can be closed
+                searcherManager.release(searcher);
             }
+        } catch (IOException e) {
+            throw new Exception("Error searching pages", e);
+        }
+
+        return new PageSearchResults(query, includePrivate, results, last, pageSize, offset, hasMore);
+    }
 
-        } catch (IOException | ParseException e) {
+    /**
+     * Collects the best paragraph of every matching page after the given group and returns one page of them,
+     * recording the time taken by each stage in the given metrics. Hits are grouped by the title doc values,
+     * so no stored fields are loaded while grouping.
+     * <p>
+     * Every matching paragraph is still scored, because the best paragraph of a page and its number of
+     * matches are only known once all of its paragraphs are seen. Only the groups of the returned page are
+     * kept in a queue bounded to the page size and sorted; the groups ranked before the cursor are skipped
+     * and the groups ranked after the page are only counted, so fetching a later page costs no more than the first.
+     *
+     * @param query          the compiled query
+     * @param includePrivate whether paragraphs of private pages may be returned
+     * @param after          the best paragraph of the last page on the previous page, or null for the first page
+     * @param pageSize       the maximum number of pages to return
+     * @param offset         the number of pages shown before this page
+     * @param recorder       the metrics the stages are recorded in
+     * @return the page of collapsed results
+     * @throws Exception if an error occurs during the search operation
+     */
+    private PageSearchResults searchCollapsed(Query query, boolean includePrivate, ScoreDoc after, int pageSize,
+                                              int offset, SearchMetrics recorder) throws Exception {
+        List<PageSearchResult> results = new ArrayList<>();
+        ScoreDoc last = null;
+        boolean hasMore;
+
+        try {
+            Query filteredQuery = query;
+            if (!includePrivate) {
+                filteredQuery = new BooleanQuery.Builder()
+                        .add(query, BooleanClause.Occur.MUST)
+                        .add(PUBLIC_ONLY, BooleanClause.Occur.FILTER)
+                        .build();
+            }
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                long start = System.nanoTime();
+                TitleGroups groups = searcher.search(filteredQuery, new TitleCollapsingCollectorManager(after, pageSize));
+                hasMore = groups.remaining > groups.top.size();
+                recorder.record(SearchMetrics.Stage.SCORE, start);
+
+                start = System.nanoTime();
+                StoredFields storedFields = searcher.storedFields();
+                long readerVersion = ((DirectoryReader) searcher.getIndexReader()).getVersion();
+                for (TitleGroup group : groups.top) {
+                    Document doc = storedFields.document(group.doc, RESULT_FIELDS);
+                    int paragraph = doc.getField("paragraph").numericValue().intValue();
+                    PageSearchResult result = new PageSearchResult(this, query, group.title, paragraph, group.score,
+                            group.doc, readerVersion);
+                    result.setAdditionalMatches(group.matches - 1);
+                    results.add(result);
+                    last = new ScoreDoc(group.doc, group.score);
+                }
+                recorder.record(SearchMetrics.Stage.LOAD, start);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
             throw new Exception("Error searching pages", e);
         }
 
-        return searchResults;
+        return new PageSearchResults(query, includePrivate, results, last, pageSize, offset, hasMore, true);
+    }
+
+    /**
+     * Loads the text of the paragraph of a search result, visiting only its content field.
+     *
+     * @param result the search result
+     * @return the paragraph text, or null if the paragraph no longer exists
+     * @throws IOException if an I/O error occurs
+     */
+    public String loadContent(PageSearchResult result) throws IOException {
+        long start = System.nanoTime();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int docId = resolveDocId(searcher, result);
+            if (docId < 0) {
+                return null;
+            }
+            return searcher.storedFields().document(docId, CONTENT_FIELDS).get("content");
+        } finally {
+            searcherManager.release(searcher);
+            metrics.record(SearchMetrics.Stage.LOAD, start);
+        }
+    }
+
+    /**
+     * Loads a bounded part of the paragraph of a search result around the terms matched by its query.
+     * The matches are located with the offsets stored in the postings, so the paragraph is not analyzed again.
+     *
+     * @param result the search result
+     * @return the snippet with the matches marked, or null if the paragraph no longer exists
+     * @throws IOException if an I/O error occurs
+     */
+    public String loadSnippet(PageSearchResult result) throws IOException {
+        return loadSnippet(result, metrics);
+    }
+
+    /**
+     * Loads the snippet of a search result as {@link #loadSnippet(PageSearchResult)} does, recording the
+     * time taken in the given metrics.
+     *
+     * @param result   the search result
+     * @param recorder the metrics the time taken is recorded in
+     * @return the snippet with the matches marked, or null if the paragraph no longer exists
+     * @throws IOException if an I/O error occurs
+     */
+    private String loadSnippet(PageSearchResult result, SearchMetrics recorder) throws IOException {
+        long start = System.nanoTime();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int docId = resolveDocId(searcher, result);
+            if (docId < 0) {
+                return null;
+            }
+            String[] snippets = getHighlighter(searcher).highlightFields(new String[]{"content"}, result.getQuery(),
+                    new int[]{docId}, new int[]{1}).get("content");
+            if (snippets[0] == null) {
+                // Only an empty paragraph has no leading passage, it is shown as it is
+                return searcher.storedFields().document(docId, CONTENT_FIELDS).get("content");
+            }
+            return snippets[0];
+        } finally {
+            searcherManager.release(searcher);
+            recorder.record(SearchMetrics.Stage.SNIPPET, start);
+        }
+    }
+
+    /**
+     * Retrieves the highlighter of the given searcher, building it only when the searcher changed since
+     * the last snippet. When the query matched no terms of a paragraph, for example when only the page
+     * title matched, the highlighter returns the leading passage of the paragraph, so a snippet is never
+     * longer than about the snippet length.
+     *
+     * @param searcher the searcher the snippets are loaded from
+     * @return the highlighter of the searcher
+     */
+    private UnifiedHighlighter getHighlighter(IndexSearcher searcher) {
+        SearcherHighlighter current = highlighter;
+        if (current == null || current.searcher != searcher) {
+            current = new SearcherHighlighter(searcher, UnifiedHighlighter.builder(searcher, analyzer)
+                    .withBreakIterator(() -> LengthGoalBreakIterator.createClosestToLength(
+                            BreakIterator.getWordInstance(Locale.ROOT), snippetLength, 0.5f))
+                    .withFormatter(new SnippetFormatter())
+                    .withMaxLength(Integer.MAX_VALUE - 1)
+                    .withMaxNoHighlightPassages(1)
+                    .build());
+            highlighter = current;
+        }
+        return current.highlighter;
+    }
+
+    /**
+     * Finds the document id of the paragraph of a search result in the given searcher.
+     * If the index changed since the result was found, the paragraph is looked up again by
+     * page title and paragraph position, because document ids are only valid for one reader.
+     *
+     * @param searcher the searcher to find the paragraph in
+     * @param result   the search result
+     * @return the document id, or -1 if the paragraph no longer exists
+     * @throws IOException if an I/O error occurs
+     */
+    private int resolveDocId(IndexSearcher searcher, PageSearchResult result) throws IOException {
+        if (((DirectoryReader) searcher.getIndexReader()).getVersion() == result.getReaderVersion()) {
+            return result.getDocId();
+        }
+        Query paragraphQuery = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term("title", result.getTitle())), BooleanClause.Occur.FILTER)
+                .add(IntPoint.newExactQuery("paragraph", result.getParagraph()), BooleanClause.Occur.FILTER)
+                .build();
+        ScoreDoc[] hits = searcher.search(paragraphQuery, 1).scoreDocs;
+        return hits.length == 0 ? -1 : hits[0].doc;
+    }
+
+    /**
+     * Creates the field type of the paragraph text. The text is stored for display and its offsets are
+     * indexed in the postings, so that snippets can be highlighted without analyzing the text again.
+     *
+     * @return the frozen field type
+     */
+    private static FieldType createContentType() {
+        FieldType type = new FieldType(TextField.TYPE_STORED);
+        type.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        type.freeze();
+        return type;
+    }
+
+    /**
+     * Suggests completions of a partly typed query word from the indexed page titles and paragraphs.
+     *
+     * @param prefix         the prefix typed so far
+     * @param includePrivate whether words of private pages may be suggested
+     * @param count          the maximum number of completions
+     * @return the completions, most popular first
+     * @throws IOException if an I/O error occurs
+     */
+    public List<String> suggest(String prefix, boolean includePrivate, int count) throws IOException {
+        waitForIndex();
+        return suggester.suggest(prefix, includePrivate, count);
+    }
+
+    /**
+     * Suggests a spelling correction of a query string that returned no results.
+     *
+     * @param queryString    the query string
+     * @param includePrivate whether words of private pages may be suggested
+     * @return the corrected query string, or null if no correction was found
+     * @throws IOException if an I/O error occurs
+     */
+    public String didYouMean(String queryString, boolean includePrivate) throws IOException {
+        waitForIndex();
+        return suggester.didYouMean(queryString, includePrivate);
+    }
+
+    /**
+     * Retrieves the suggester of query completions and spelling corrections.
+     *
+     * @return the PageSuggester object
+     */
+    public PageSuggester getSuggester() {
+        return suggester;
+    }
+
+    /**
+     * Closes the shared searcher, the index writer and the index directory, once the pages are indexed.
+     * Searches that are still running keep their searcher until they release it.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        // The startup thread still uses the writer, so it must finish first
+        awaitStartup();
+        metrics.close();
+        suggester.close();
+        searcherManager.close();
+        writer.close();
+        index.close();
+        if (searchExecutor != null) {
+            searchExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Retrieves the latency histograms and counters of the searches over this index.
+     *
+     * @return the SearchMetrics object
+     */
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Retrieves the cache of recent search results, for example to read its hit and miss counters.
+     *
+     * @return the SearchResultCache object
+     */
+    public SearchResultCache getResultCache() {
+        return resultCache;
     }
 
     /**
@@ -202,20 +1232,323 @@ public class PageSearch {
     }
 
     /**
-     * Retrieves the list of search results.
-     *
-     * @return the list of PageSearchResult objects representing the search results
+     * Iterates over the documents of the paragraphs of a page, reading each paragraph from the page
+     * file only when the index writer asks for it. Empty paragraphs are skipped.
      */
-    public List<PageSearchResult> getSearchResults() {
-        return searchResults;
+    private static class ParagraphDocuments implements Iterator<Document> {
+        private final Page page; // The page whose paragraphs are read
+        private final String fingerprint; // The fingerprint of the page file
+        private final ParagraphReader paragraphs; // The reader of the paragraphs of the page file
+        private String next; // The next non-empty paragraph, or null at the end of the file
+        private int position; // The position of the next paragraph in the page
+
+        /**
+         * Constructs a new ParagraphDocuments iterator and reads the first paragraph.
+         *
+         * @param page        the page whose paragraphs are read
+         * @param fingerprint the fingerprint of the page file
+         * @param paragraphs  the reader of the paragraphs of the page file
+         */
+        ParagraphDocuments(Page page, String fingerprint, ParagraphReader paragraphs) {
+            this.page = page;
+            this.fingerprint = fingerprint;
+            this.paragraphs = paragraphs;
+            advance();
+        }
+
+        /**
+         * Checks if there is another non-empty paragraph.
+         *
+         * @return true if another document can be created, false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        /**
+         * Creates the document of the next paragraph and reads the paragraph after it.
+         *
+         * @return the document of the next paragraph
+         */
+        @Override
+        public Document next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Document doc = createDoc(page, position++, next, fingerprint);
+            advance();
+            return doc;
+        }
+
+        /**
+         * Reads the next non-empty paragraph. Read errors are rethrown unchecked, because the
+         * index writer pulls the documents through the Iterator interface.
+         */
+        private void advance() {
+            try {
+                do {
+                    next = paragraphs.readParagraph();
+                } while (next != null && next.trim().isEmpty()); // Ignore empty paragraphs
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
     /**
-     * Sets the list of search results.
-     *
-     * @param searchResults the list of PageSearchResult objects representing the search results
+     * A highlighter together with the searcher it reads the paragraphs from. The highlighter is thread-safe,
+     * so it is shared by every snippet loaded from the same searcher.
+     */
+    private static class SearcherHighlighter {
+        private final IndexSearcher searcher; // The searcher the highlighter reads from
+        private final UnifiedHighlighter highlighter; // The highlighter building the snippets
+
+        /**
+         * Constructs a new SearcherHighlighter.
+         *
+         * @param searcher    the searcher the highlighter reads from
+         * @param highlighter the highlighter building the snippets
+         */
+        SearcherHighlighter(IndexSearcher searcher, UnifiedHighlighter highlighter) {
+            this.searcher = searcher;
+            this.highlighter = highlighter;
+        }
+    }
+
+    /**
+     * The best matching paragraph of a page, with the number of matching paragraphs of the page.
+     */
+    private static class TitleGroup {
+        private final String title; // The title of the page
+        private float score; // The score of the best matching paragraph
+        private int doc; // The document id of the best matching paragraph
+        private int matches; // The number of matching paragraphs of the page
+
+        /**
+         * Constructs a new, empty TitleGroup.
+         *
+         * @param title the title of the page
+         */
+        TitleGroup(String title) {
+            this.title = title;
+            this.score = Float.NEGATIVE_INFINITY;
+            this.doc = Integer.MAX_VALUE;
+        }
+
+        /**
+         * Adds matching paragraphs to the group, keeping the best one. Ties are broken by document id,
+         * as in the uncollapsed search.
+         *
+         * @param score   the score of the best of the added paragraphs
+         * @param doc     the document id of the best of the added paragraphs
+         * @param matches the number of added paragraphs
+         */
+        void add(float score, int doc, int matches) {
+            if (score > this.score || (score == this.score && doc < this.doc)) {
+                this.score = score;
+                this.doc = doc;
+            }
+            this.matches += matches;
+        }
+    }
+
+    /**
+     * The groups of one page of collapsed results, with the number of groups ranked after the cursor.
      */
-    public void setSearchResults(List<PageSearchResult> searchResults) {
-        this.searchResults = searchResults;
+    private static class TitleGroups {
+        private final List<TitleGroup> top; // The groups of the page, best first
+        private final int remaining; // The number of groups ranked after the cursor, including the page
+
+        /**
+         * Constructs a new TitleGroups.
+         *
+         * @param top       the groups of the page, best first
+         * @param remaining the number of groups ranked after the cursor, including the page
+         */
+        TitleGroups(List<TitleGroup> top, int remaining) {
+            this.top = top;
+            this.remaining = remaining;
+        }
+    }
+
+    /**
+     * Collapses hits per page title. Each slice of the index is collected into its own map of groups,
+     * and the maps are merged. Only the best groups ranked after the cursor are kept, in a priority
+     * queue bounded to the page size, and the others are only counted.
+     */
+    private static class TitleCollapsingCollectorManager
+            implements CollectorManager<TitleCollapsingCollectorManager.Collector, TitleGroups> {
+        // Orders groups from the worst to the best, ties are broken by document id as in the uncollapsed search
+        private static final Comparator<TitleGroup> WORST_FIRST = (a, b) ->
+                a.score != b.score ? Float.compare(a.score, b.score) : Integer.compare(b.doc, a.doc);
+        private final ScoreDoc after; // The best paragraph of the last group of the previous page, or null
+        private final int numGroups; // The number of groups of the page
+
+        /**
+         * Constructs a new TitleCollapsingCollectorManager.
+         *
+         * @param after     the best paragraph of the last group of the previous page, or null for the first page
+         * @param numGroups the number of groups of the page
+         */
+        TitleCollapsingCollectorManager(ScoreDoc after, int numGroups) {
+            this.after = after;
+            this.numGroups = numGroups;
+        }
+
+        @Override
+        public Collector newCollector() {
+            return new Collector();
+        }
+
+        @Override
+        public TitleGroups reduce(Collection<Collector> collectors) {
+            Map<String, TitleGroup> merged = new HashMap<>();
+            for (Collector collector : collectors) {
+                for (TitleGroup group : collector.groups.values()) {
+                    merged.computeIfAbsent(group.title, TitleGroup::new).add(group.score, group.doc, group.matches);
+                }
+            }
+            PriorityQueue<TitleGroup> queue = new PriorityQueue<>(numGroups + 1, WORST_FIRST);
+            int remaining = 0;
+            for (TitleGroup group : merged.values()) {
+                if (after != null && (group.score > after.score || (group.score == after.score && group.doc <= after.doc))) {
+                    continue;
+                }
+                remaining++;
+                queue.add(group);
+                if (queue.size() > numGroups) {
+                    queue.poll();
+                }
+            }
+            List<TitleGroup> top = new ArrayList<>(queue.size());
+            while (!queue.isEmpty()) {
+                top.add(queue.poll());
+            }
+            Collections.reverse(top);
+            return new TitleGroups(top, remaining);
+        }
+
+        /**
+         * Groups the hits of one slice by the title doc values of their segment. Segments written
+         * before titles had doc values fall back to the stored title.
+         */
+        private static class Collector extends SimpleCollector {
+            private final Map<String, TitleGroup> groups = new HashMap<>(); // The groups of this slice by title
+            private SortedDocValues titles; // The title doc values of the current segment, or null
+            private StoredFields storedFields; // The stored fields of the current segment, for the fallback
+            private TitleGroup[] groupsByOrd; // The groups of the current segment by title ordinal
+            private Scorable scorer; // The scorer of the current hit
+            private int docBase; // The first document id of the current segment
+
+            @Override
+            protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                FieldInfo fieldInfo = context.reader().getFieldInfos().fieldInfo("title");
+                if (fieldInfo != null && fieldInfo.getDocValuesType() == DocValuesType.SORTED) {
+                    titles = DocValues.getSorted(context.reader(), "title");
+                    groupsByOrd = new TitleGroup[titles.getValueCount()];
+                } else {
+                    titles = null;
+                    storedFields = context.reader().storedFields();
+                }
+                docBase = context.docBase;
+            }
+
+            @Override
+            public void setScorer(Scorable scorer) {
+                this.scorer = scorer;
+            }
+
+            @Override
+            public void collect(int doc) throws IOException {
+                TitleGroup group;
+                if (titles != null) {
+                    if (!titles.advanceExact(doc)) {
+                        return;
+                    }
+                    int ord = titles.ordValue();
+                    group = groupsByOrd[ord];
+                    if (group == null) {
+                        group = groups.computeIfAbsent(titles.lookupOrd(ord).utf8ToString(), TitleGroup::new);
+                        groupsByOrd[ord] = group;
+                    }
+                } else {
+                    String title = storedFields.document(doc, Set.of("title")).get("title");
+                    group = groups.computeIfAbsent(title, TitleGroup::new);
+                }
+                group.add(scorer.score(), docBase + doc, 1);
+            }
+
+            @Override
+            public ScoreMode scoreMode() {
+                return ScoreMode.COMPLETE;
+            }
+        }
+    }
+
+    /**
+     * Creates the searchers shared by the searcher manager. The privacy filter used for guest
+     * searches is always cached, so guests and logged in users can share one index without
+     * re-evaluating the filter for every query.
+     */
+    private static class PageSearcherFactory extends SearcherFactory {
+        private final ExecutorService executor; // Threads searching segment slices in parallel, or null
+        private final int sliceMaxDocs; // Maximum number of documents in one slice
+        private final int sliceMaxSegments; // Maximum number of segments in one slice
+        private final Similarity similarity; // The scoring model of the searchers
+
+        /**
+         * Constructs a new PageSearcherFactory.
+         *
+         * @param executor         the threads searching segment slices in parallel, or null to search
+         *                         segments on the calling thread
+         * @param sliceMaxDocs     the maximum number of documents in one slice
+         * @param sliceMaxSegments the maximum number of segments in one slice
+         * @param similarity       the scoring model of the searchers
+         */
+        PageSearcherFactory(ExecutorService executor, int sliceMaxDocs, int sliceMaxSegments, Similarity similarity) {
+            this.executor = executor;
+            this.sliceMaxDocs = sliceMaxDocs;
+            this.sliceMaxSegments = sliceMaxSegments;
+            this.similarity = similarity;
+        }
+
+        /**
+         * Creates a new searcher over the given reader. With an executor, the segments of the reader are
+         * grouped into slices of the configured size and the slices of one query are searched in parallel.
+         *
+         * @param reader         the reader to search
+         * @param previousReader the reader previously used, or null
+         * @return the new searcher
+         * @throws IOException if an I/O error occurs
+         */
+        @Override
+        public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) throws IOException {
+            IndexSearcher searcher;
+            if (executor == null) {
+                searcher = new IndexSearcher(reader);
+            } else {
+                searcher = new IndexSearcher(reader, executor) {
+                    @Override
+                    protected LeafSlice[] slices(List<LeafReaderContext> leaves) {
+                        return slices(leaves, sliceMaxDocs, sliceMaxSegments);
+                    }
+                };
+            }
+            searcher.setSimilarity(similarity);
+            QueryCachingPolicy defaultPolicy = new UsageTrackingQueryCachingPolicy();
+            searcher.setQueryCachingPolicy(new QueryCachingPolicy() {
+                @Override
+                public void onUse(Query query) {
+                    defaultPolicy.onUse(query);
+                }
+
+                @Override
+                public boolean shouldCache(Query query) throws IOException {
+                    return query.equals(PUBLIC_ONLY) || defaultPolicy.shouldCache(query);
+                }
+            });
+            return searcher;
+        }
     }
 }
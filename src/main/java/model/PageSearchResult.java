@@ -1,10 +1,27 @@
 package model;
 
+import org.apache.lucene.search.Query;
+
+import java.io.IOException;
+
 /**
  * Represents a search result from the PageSearch class.
- * It encapsulates formatted content retrieved from the search operation.
+ * It identifies the matching paragraph by the title of its page and its position in the page,
+ * together with its score and Lucene document id. The text of the paragraph and the snippet
+ * highlighting the matched terms are only loaded from the index when they are first needed,
+ * typically when the result is displayed.
  */
 public class PageSearchResult {
+    private PageSearch source; // The PageSearch the result came from, used to load the paragraph text
+    private Query query; // The query that matched the paragraph, used to highlight the snippet
+    private String title; // The title of the page containing the paragraph
+    private int paragraph; // The position of the paragraph in the page, starting at 0
+    private float score; // The score of the paragraph for the query
+    private int docId; // The Lucene document id of the paragraph in the reader that was searched
+    private long readerVersion; // The version of the reader that was searched
+    private String content; // The text of the paragraph, loaded on first use
+    private String snippet; // The part of the paragraph around the matched terms, loaded on first use
+    private int additionalMatches; // The number of other matching paragraphs of the page, when hits are collapsed
     private String formattedContent; // The formatted content of the search result
 
     /**
@@ -17,11 +34,147 @@ public class PageSearchResult {
     }
 
     /**
-     * Retrieves the formatted content of the search result.
+     * Constructs a new PageSearchResult object for a matching paragraph whose text is loaded lazily.
+     *
+     * @param source        the PageSearch the result came from
+     * @param query         the query that matched the paragraph
+     * @param title         the title of the page containing the paragraph
+     * @param paragraph     the position of the paragraph in the page
+     * @param score         the score of the paragraph for the query
+     * @param docId         the Lucene document id of the paragraph
+     * @param readerVersion the version of the reader that was searched
+     */
+    public PageSearchResult(PageSearch source, Query query, String title, int paragraph, float score, int docId,
+                            long readerVersion) {
+        this.source = source;
+        this.query = query;
+        this.title = title;
+        this.paragraph = paragraph;
+        this.score = score;
+        this.docId = docId;
+        this.readerVersion = readerVersion;
+    }
+
+    /**
+     * Retrieves the title of the page containing the paragraph.
+     *
+     * @return the page title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Retrieves the position of the paragraph in the page.
+     *
+     * @return the paragraph position, starting at 0
+     */
+    public int getParagraph() {
+        return paragraph;
+    }
+
+    /**
+     * Retrieves the score of the paragraph for the query.
+     *
+     * @return the score
+     */
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * Retrieves the Lucene document id of the paragraph in the reader that was searched.
+     *
+     * @return the document id
+     */
+    public int getDocId() {
+        return docId;
+    }
+
+    /**
+     * Retrieves the version of the reader that was searched. The document id is only valid for that version.
+     *
+     * @return the reader version
+     */
+    public long getReaderVersion() {
+        return readerVersion;
+    }
+
+    /**
+     * Retrieves the text of the paragraph, loading it from the index on first use.
+     *
+     * @return the paragraph text, or null if the page was changed and the paragraph no longer exists
+     */
+    public String getContent() {
+        if (content == null && source != null) {
+            try {
+                content = source.loadContent(this);
+            } catch (IOException e) {
+                throw new RuntimeException("Error loading search result", e);
+            }
+        }
+        return content;
+    }
+
+    /**
+     * Retrieves the query that matched the paragraph.
+     *
+     * @return the query
+     */
+    public Query getQuery() {
+        return query;
+    }
+
+    /**
+     * Retrieves a bounded part of the paragraph around the matched terms, with the matches marked.
+     * The snippet is computed from the offsets stored in the index on first use.
+     *
+     * @return the snippet, or null if the page was changed and the paragraph no longer exists
+     */
+    public String getSnippet() {
+        if (snippet == null && source != null) {
+            try {
+                snippet = source.loadSnippet(this);
+            } catch (IOException e) {
+                throw new RuntimeException("Error loading search result", e);
+            }
+        }
+        return snippet;
+    }
+
+    /**
+     * Retrieves the number of other paragraphs of the same page that matched the query,
+     * when the hits are collapsed per page title.
+     *
+     * @return the number of additional matches
+     */
+    public int getAdditionalMatches() {
+        return additionalMatches;
+    }
+
+    /**
+     * Sets the number of other paragraphs of the same page that matched the query.
+     *
+     * @param additionalMatches the number of additional matches
+     */
+    public void setAdditionalMatches(int additionalMatches) {
+        this.additionalMatches = additionalMatches;
+    }
+
+    /**
+     * Retrieves the formatted content of the search result, showing the snippet of the paragraph
+     * and the number of other matching paragraphs of the page.
      *
      * @return the formatted content
      */
     public String getFormattedContent() {
+        if (formattedContent == null) {
+            formattedContent = "Title: " + title + "\n" + getSnippet() + "\n";
+            if (additionalMatches > 0) {
+                formattedContent += "(+" + additionalMatches + " more "
+                        + (additionalMatches == 1 ? "match" : "matches") + " in this page)\n";
+            }
+        }
         return formattedContent;
     }
 
@@ -0,0 +1,144 @@
+package model;
+
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents one page of results of a search, together with the cursor needed to fetch the next page.
+ * Only the hits of this page are collected and loaded; the next page is fetched with
+ * {@link PageSearch#searchNext(PageSearchResults)}, which continues after the last hit of this page.
+ */
+public class PageSearchResults {
+    private final Query query; // The compiled query that was searched
+    private final boolean includePrivate; // Whether paragraphs of private pages may be returned
+    private final List<PageSearchResult> results; // The results of this page
+    private final ScoreDoc last; // The last hit of this page, used as the cursor for the next page
+    private final int pageSize; // The maximum number of results per page
+    private final int offset; // The number of results shown before this page
+    private final boolean hasMore; // Whether there are results after this page
+    private final boolean collapsed; // Whether only the best paragraph of each page is returned
+
+    /**
+     * Constructs a new PageSearchResults object.
+     *
+     * @param query          the compiled query that was searched
+     * @param includePrivate whether paragraphs of private pages may be returned
+     * @param results        the results of this page
+     * @param last           the last hit of this page, or null if the page is empty
+     * @param pageSize       the maximum number of results per page
+     * @param offset         the number of results shown before this page
+     * @param hasMore        whether there are results after this page
+     */
+    public PageSearchResults(Query query, boolean includePrivate, List<PageSearchResult> results, ScoreDoc last,
+                             int pageSize, int offset, boolean hasMore) {
+        this(query, includePrivate, results, last, pageSize, offset, hasMore, false);
+    }
+
+    /**
+     * Constructs a new PageSearchResults object, possibly holding hits collapsed per page title.
+     *
+     * @param query          the compiled query that was searched
+     * @param includePrivate whether paragraphs of private pages may be returned
+     * @param results        the results of this page
+     * @param last           the last hit of this page, or null if the page is empty
+     * @param pageSize       the maximum number of results per page
+     * @param offset         the number of results shown before this page
+     * @param hasMore        whether there are results after this page
+     * @param collapsed      whether only the best paragraph of each page is returned
+     */
+    public PageSearchResults(Query query, boolean includePrivate, List<PageSearchResult> results, ScoreDoc last,
+                             int pageSize, int offset, boolean hasMore, boolean collapsed) {
+        this.query = query;
+        this.includePrivate = includePrivate;
+        this.results = Collections.unmodifiableList(results);
+        this.last = last;
+        this.pageSize = pageSize;
+        this.offset = offset;
+        this.hasMore = hasMore;
+        this.collapsed = collapsed;
+    }
+
+    /**
+     * Retrieves the compiled query that was searched.
+     *
+     * @return the query
+     */
+    public Query getQuery() {
+        return query;
+    }
+
+    /**
+     * Checks if paragraphs of private pages may be returned.
+     *
+     * @return true if private pages are searched, false otherwise
+     */
+    public boolean isIncludePrivate() {
+        return includePrivate;
+    }
+
+    /**
+     * Retrieves the results of this page.
+     *
+     * @return an unmodifiable list of the results
+     */
+    public List<PageSearchResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Retrieves the last hit of this page, used as the cursor for the next page.
+     *
+     * @return the last hit, or null if the page is empty
+     */
+    public ScoreDoc getLast() {
+        return last;
+    }
+
+    /**
+     * Retrieves the maximum number of results per page.
+     *
+     * @return the page size
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Retrieves the number of results shown before this page.
+     *
+     * @return the offset of the first result of this page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Checks if there are results after this page.
+     *
+     * @return true if a next page can be fetched, false otherwise
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * Checks if this page has no results.
+     *
+     * @return true if there are no results, false otherwise
+     */
+    public boolean isEmpty() {
+        return results.isEmpty();
+    }
+
+    /**
+     * Checks if only the best paragraph of each page is returned.
+     *
+     * @return true if the hits are collapsed per page title, false otherwise
+     */
+    public boolean isCollapsed() {
+        return collapsed;
+    }
+}
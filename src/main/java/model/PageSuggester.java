@@ -0,0 +1,486 @@
+package model;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.spell.DirectSpellChecker;
+import org.apache.lucene.search.spell.SuggestMode;
+import org.apache.lucene.search.spell.SuggestWord;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingSuggester;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Suggests query completions and spelling corrections from the indexed pages.
+ * Completions come from in-memory FST suggesters built from the paragraph terms and page titles,
+ * weighted by the number of paragraphs they occur in, with titles ranked first. Separate suggesters
+ * are kept for guests and for logged in users, so guests are never offered words that only occur
+ * in private pages. The suggesters are rebuilt on a background thread after pages are added, and
+ * lookups use the last suggesters built until the rebuild finishes.
+ * <p>
+ * The term weights are kept per index segment and updated incrementally: a rebuild only counts the terms
+ * of segments that are new, or whose pages were replaced or removed since the last rebuild, and reuses the
+ * counts of every other segment. The FST suggesters themselves cannot be updated in place, so they are
+ * built again from the merged weights.
+ */
+public class PageSuggester implements Closeable {
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+"); // A word of a query string
+    private static final Set<String> OPERATORS = Set.of("AND", "OR", "NOT", "TO"); // Query operators that are not corrected
+
+    private final SearcherManager searcherManager; // The source of the searchers over the index
+    private final Analyzer analyzer; // The analyzer used for the suggestions, the same as for indexing
+    private final Query publicOnly; // Filter matching paragraphs of public pages
+    private final DirectSpellChecker spellChecker; // Finds indexed terms close to a misspelled word
+    private final ExecutorService executor; // The background thread rebuilding the suggesters
+    private final AtomicBoolean rebuildPending; // Whether a rebuild is scheduled and has not started yet
+    private Map<Object, SegmentTerms> segmentTerms; // Term counts of the segments seen by the last rebuild, by segment core
+    private volatile Lookup allSuggester; // Suggester over all pages, or null if the index is empty
+    private volatile Lookup publicSuggester; // Suggester over public pages, or null if there are none
+
+    /**
+     * Constructs a new PageSuggester and builds its suggesters from the current index.
+     *
+     * @param searcherManager the source of the searchers over the index
+     * @param analyzer        the analyzer used for indexing
+     * @param publicOnly      the filter matching paragraphs of public pages
+     * @throws IOException if an I/O error occurs
+     */
+    public PageSuggester(SearcherManager searcherManager, Analyzer analyzer, Query publicOnly) throws IOException {
+        this.searcherManager = searcherManager;
+        this.analyzer = analyzer;
+        this.publicOnly = publicOnly;
+        this.spellChecker = new DirectSpellChecker();
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "page-suggester");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rebuildPending = new AtomicBoolean();
+        this.segmentTerms = new HashMap<>();
+        rebuild();
+    }
+
+    /**
+     * Schedules a rebuild of the suggesters from the current index on the background thread.
+     * Rebuilds requested while one is already waiting to start are merged into it.
+     *
+     * @return a future completing when the scheduled rebuild has finished
+     */
+    public Future<?> scheduleRebuild() {
+        rebuildPending.set(true);
+        return executor.submit(() -> {
+            if (rebuildPending.getAndSet(false)) {
+                rebuild();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Rebuilds the suggesters from the current index. Only the terms of the segments that changed since
+     * the last rebuild are counted again.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void rebuild() throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            IndexReader reader = searcher.getIndexReader();
+            Map<Object, SegmentTerms> current = new HashMap<>();
+            for (LeafReaderContext context : reader.leaves()) {
+                LeafReader leaf = context.reader();
+                IndexReader.CacheHelper cacheHelper = leaf.getCoreCacheHelper();
+                Object key = cacheHelper == null ? leaf : cacheHelper.getKey();
+                SegmentTerms terms = segmentTerms.get(key);
+                if (terms == null || terms.numDeletedDocs != leaf.numDeletedDocs()) {
+                    terms = new SegmentTerms(leaf);
+                }
+                current.put(key, terms);
+            }
+            // Segments merged away since the last rebuild are dropped with the old map
+            segmentTerms = current;
+
+            Map<BytesRef, long[]> titles = new HashMap<>();
+            Map<BytesRef, long[]> contents = new HashMap<>();
+            for (SegmentTerms terms : current.values()) {
+                terms.addTo(terms.titles, titles);
+                terms.addTo(terms.contents, contents);
+            }
+            List<Entry> allEntries = new ArrayList<>();
+            List<Entry> publicEntries = new ArrayList<>();
+            // Titles are ranked above the terms of paragraphs
+            addEntries(titles, reader.maxDoc(), allEntries, publicEntries);
+            addEntries(contents, 0, allEntries, publicEntries);
+            allSuggester = buildSuggester(allEntries);
+            publicSuggester = buildSuggester(publicEntries);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Adds the weighted suggestions of a field, once for all paragraphs and once for public paragraphs.
+     *
+     * @param counts        the number of live paragraphs and of live public paragraphs of each term
+     * @param boost         the weight added to every term of the field
+     * @param allEntries    the list the terms of all paragraphs are added to
+     * @param publicEntries the list the terms of public paragraphs are added to
+     */
+    private static void addEntries(Map<BytesRef, long[]> counts, long boost, List<Entry> allEntries,
+                                   List<Entry> publicEntries) {
+        for (Map.Entry<BytesRef, long[]> count : counts.entrySet()) {
+            if (count.getValue()[0] > 0) {
+                allEntries.add(new Entry(count.getKey(), boost + count.getValue()[0]));
+            }
+            if (count.getValue()[1] > 0) {
+                publicEntries.add(new Entry(count.getKey(), boost + count.getValue()[1]));
+            }
+        }
+    }
+
+    /**
+     * Looks up the completions of a prefix, most popular first. A paragraph word that only differs
+     * in case from a page title is not suggested again.
+     *
+     * @param prefix         the prefix typed so far
+     * @param includePrivate whether words of private pages may be suggested
+     * @param count          the maximum number of completions
+     * @return the completions, or an empty list if there are none
+     * @throws IOException if an I/O error occurs
+     */
+    public List<String> suggest(String prefix, boolean includePrivate, int count) throws IOException {
+        Lookup suggester = includePrivate ? allSuggester : publicSuggester;
+        if (suggester == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        Map<String, String> completions = new LinkedHashMap<>();
+        for (Lookup.LookupResult result : suggester.lookup(prefix, false, count * 2)) {
+            String completion = result.key.toString();
+            completions.putIfAbsent(completion.toLowerCase(Locale.ROOT), completion);
+        }
+        return new ArrayList<>(completions.values()).subList(0, Math.min(count, completions.size()));
+    }
+
+    /**
+     * Corrects the misspelled words of a query string. A word is corrected if it occurs in no
+     * paragraph the user may see and a close enough word does; operators, phrases and the
+     * structure of the query are kept as they are.
+     *
+     * @param queryString    the query string that returned no results
+     * @param includePrivate whether words of private pages may be suggested
+     * @return the corrected query string, or null if no word could be corrected
+     * @throws IOException if an I/O error occurs
+     */
+    public String didYouMean(String queryString, boolean includePrivate) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            StringBuilder corrected = new StringBuilder();
+            boolean changed = false;
+            int position = 0;
+            Matcher matcher = WORD.matcher(queryString);
+            while (matcher.find()) {
+                String word = matcher.group();
+                corrected.append(queryString, position, matcher.start());
+                position = matcher.end();
+                String correction = isCorrectable(queryString, matcher)
+                        ? correct(searcher, word.toLowerCase(Locale.ROOT), includePrivate) : null;
+                if (correction != null) {
+                    corrected.append(correction);
+                    changed = true;
+                } else {
+                    corrected.append(word);
+                }
+            }
+            corrected.append(queryString, position, queryString.length());
+            return changed ? corrected.toString() : null;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Stops the background thread rebuilding the suggesters.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks if a word of a query string is a plain search term that can be corrected,
+     * rather than an operator, a field name, or part of a wildcard or fuzzy term.
+     *
+     * @param queryString the query string
+     * @param matcher     the matcher positioned on the word
+     * @return true if the word can be corrected, false otherwise
+     */
+    private static boolean isCorrectable(String queryString, Matcher matcher) {
+        if (OPERATORS.contains(matcher.group())) {
+            return false;
+        }
+        char before = matcher.start() > 0 ? queryString.charAt(matcher.start() - 1) : ' ';
+        char after = matcher.end() < queryString.length() ? queryString.charAt(matcher.end()) : ' ';
+        return "*?~:^".indexOf(after) < 0 && "*?~^".indexOf(before) < 0;
+    }
+
+    /**
+     * Finds the correction of a term that occurs in no paragraph the user may see.
+     *
+     * @param searcher       the searcher over the index
+     * @param term           the lowercase term
+     * @param includePrivate whether words of private pages may be suggested
+     * @return the most similar visible term, or null if the term is visible or no correction was found
+     * @throws IOException if an I/O error occurs
+     */
+    private String correct(IndexSearcher searcher, String term, boolean includePrivate) throws IOException {
+        if (isVisible(searcher, term, includePrivate)) {
+            return null;
+        }
+        SuggestWord[] candidates = spellChecker.suggestSimilar(new Term("content", term), 5,
+                searcher.getIndexReader(), SuggestMode.SUGGEST_WHEN_NOT_IN_INDEX);
+        for (SuggestWord candidate : candidates) {
+            if (isVisible(searcher, candidate.string, includePrivate)) {
+                return candidate.string;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a term occurs in a paragraph the user may see.
+     *
+     * @param searcher       the searcher over the index
+     * @param term           the lowercase term
+     * @param includePrivate whether paragraphs of private pages may be seen
+     * @return true if the term occurs in a visible paragraph, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    private boolean isVisible(IndexSearcher searcher, String term, boolean includePrivate) throws IOException {
+        Query query = new TermQuery(new Term("content", term));
+        if (!includePrivate) {
+            query = new BooleanQuery.Builder()
+                    .add(query, BooleanClause.Occur.MUST)
+                    .add(publicOnly, BooleanClause.Occur.FILTER)
+                    .build();
+        }
+        return searcher.count(query) > 0;
+    }
+
+    /**
+     * Finds the documents of a segment containing a term.
+     *
+     * @param reader the reader over the segment
+     * @param field  the field of the term
+     * @param term   the term
+     * @return a bit set of the documents containing the term
+     * @throws IOException if an I/O error occurs
+     */
+    private static FixedBitSet matchingDocs(LeafReader reader, String field, BytesRef term) throws IOException {
+        FixedBitSet docs = new FixedBitSet(Math.max(1, reader.maxDoc()));
+        Terms terms = reader.terms(field);
+        if (terms != null) {
+            TermsEnum termsEnum = terms.iterator();
+            if (termsEnum.seekExact(term)) {
+                PostingsEnum postings = termsEnum.postings(null, PostingsEnum.NONE);
+                for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+                    docs.set(doc);
+                }
+            }
+        }
+        return docs;
+    }
+
+    /**
+     * Counts the terms of a field of a segment with the number of live paragraphs they occur in, once over
+     * all paragraphs and once over the paragraphs of public pages.
+     *
+     * @param reader     the reader over the segment
+     * @param field      the field whose terms are counted
+     * @param liveDocs   the live documents, or null if no document is deleted
+     * @param publicDocs the documents of public pages
+     * @return the number of live paragraphs and of live public paragraphs of each term
+     * @throws IOException if an I/O error occurs
+     */
+    private static Map<BytesRef, long[]> countTerms(LeafReader reader, String field, Bits liveDocs,
+                                                    FixedBitSet publicDocs) throws IOException {
+        Map<BytesRef, long[]> counts = new HashMap<>();
+        Terms terms = reader.terms(field);
+        if (terms == null) {
+            return counts;
+        }
+        TermsEnum termsEnum = terms.iterator();
+        PostingsEnum postings = null;
+        BytesRef term;
+        while ((term = termsEnum.next()) != null) {
+            long all = 0;
+            long visible = 0;
+            postings = termsEnum.postings(postings, PostingsEnum.NONE);
+            for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+                if (liveDocs == null || liveDocs.get(doc)) {
+                    all++;
+                    if (publicDocs.get(doc)) {
+                        visible++;
+                    }
+                }
+            }
+            if (all > 0) {
+                counts.put(BytesRef.deepCopyOf(term), new long[]{all, visible});
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Builds an FST suggester over the given entries.
+     *
+     * @param entries the suggestions with their weights
+     * @return the suggester, or null if there are no entries
+     * @throws IOException if an I/O error occurs
+     */
+    private Lookup buildSuggester(List<Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        AnalyzingSuggester suggester = new AnalyzingSuggester(new ByteBuffersDirectory(), "suggest", analyzer);
+        suggester.build(new EntryIterator(entries));
+        return suggester;
+    }
+
+    /**
+     * The term counts of one segment, valid as long as no paragraph of the segment is deleted.
+     */
+    private static class SegmentTerms {
+        private final int numDeletedDocs; // The number of deleted paragraphs of the segment when it was counted
+        private final Map<BytesRef, long[]> titles; // Live and live public paragraphs of each title
+        private final Map<BytesRef, long[]> contents; // Live and live public paragraphs of each paragraph term
+
+        /**
+         * Counts the terms of a segment.
+         *
+         * @param reader the reader over the segment
+         * @throws IOException if an I/O error occurs
+         */
+        SegmentTerms(LeafReader reader) throws IOException {
+            Bits liveDocs = reader.getLiveDocs();
+            FixedBitSet publicDocs = matchingDocs(reader, "private", new BytesRef("false"));
+            this.numDeletedDocs = reader.numDeletedDocs();
+            this.titles = countTerms(reader, "title", liveDocs, publicDocs);
+            this.contents = countTerms(reader, "content", liveDocs, publicDocs);
+        }
+
+        /**
+         * Adds the counts of one field of this segment to the counts over the whole index.
+         *
+         * @param counts the counts of the field in this segment
+         * @param total  the counts over the whole index
+         */
+        void addTo(Map<BytesRef, long[]> counts, Map<BytesRef, long[]> total) {
+            for (Map.Entry<BytesRef, long[]> count : counts.entrySet()) {
+                long[] sum = total.computeIfAbsent(count.getKey(), term -> new long[2]);
+                sum[0] += count.getValue()[0];
+                sum[1] += count.getValue()[1];
+            }
+        }
+    }
+
+    /**
+     * A suggestion with its weight.
+     */
+    private static class Entry {
+        private final BytesRef term; // The suggested text
+        private final long weight; // The weight of the suggestion, higher weights are suggested first
+
+        /**
+         * Constructs a new Entry.
+         *
+         * @param term   the suggested text
+         * @param weight the weight of the suggestion
+         */
+        Entry(BytesRef term, long weight) {
+            this.term = term;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Feeds a list of entries to a suggester being built.
+     */
+    private static class EntryIterator implements InputIterator {
+        private final Iterator<Entry> entries; // The remaining entries
+        private Entry current; // The current entry
+
+        /**
+         * Constructs a new EntryIterator over the given entries.
+         *
+         * @param entries the entries to feed
+         */
+        EntryIterator(List<Entry> entries) {
+            this.entries = entries.iterator();
+        }
+
+        @Override
+        public BytesRef next() {
+            current = entries.hasNext() ? entries.next() : null;
+            return current == null ? null : current.term;
+        }
+
+        @Override
+        public long weight() {
+            return current.weight;
+        }
+
+        @Override
+        public BytesRef payload() {
+            return null;
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return false;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return null;
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return false;
+        }
+    }
+}
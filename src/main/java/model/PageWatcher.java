@@ -0,0 +1,190 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the files of registered pages and reindexes a page when its file changes on disk.
+ * The directories of the pages are watched by a background thread. Change events are debounced:
+ * the changed pages are only reindexed once no further change was seen for the debounce period,
+ * so an editor saving a file in several steps causes a single reindex. Only the pages whose
+ * files changed are reindexed, so searches never wait on the watcher.
+ */
+public class PageWatcher implements Closeable {
+    private final PageSearch pageSearch; // The search index the changed pages are reindexed into
+    private final long debounceMillis; // Quiet period after the last change before pages are reindexed
+    private final WatchService watchService; // The service reporting changes in the watched directories
+    private final Map<String, Page> watchedPages; // The watched pages by title
+    private final Map<Path, Set<String>> titlesByFile; // The titles of the watched pages by their file
+    private final Set<Path> watchedDirectories; // The directories registered with the watch service
+    private final Thread thread; // The background thread handling change events
+    private volatile IOException lastError; // The last error hit while reindexing, or null
+
+    /**
+     * Constructs a new PageWatcher and starts its background thread.
+     *
+     * @param pageSearch     the search index the changed pages are reindexed into
+     * @param debounceMillis the quiet period in milliseconds after the last change before pages are reindexed
+     * @throws IOException if the watch service cannot be created
+     */
+    public PageWatcher(PageSearch pageSearch, long debounceMillis) throws IOException {
+        this.pageSearch = pageSearch;
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watchedPages = new HashMap<>();
+        this.titlesByFile = new HashMap<>();
+        this.watchedDirectories = new HashSet<>();
+        this.thread = new Thread(this::run, "page-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Starts watching the file of a page. A page watched under the same title before is replaced.
+     *
+     * @param page the page to watch
+     * @throws IOException if the directory of the page file cannot be watched
+     */
+    public synchronized void watch(Page page) throws IOException {
+        Path file = Paths.get(page.getContent()).toAbsolutePath().normalize();
+        Page previous = watchedPages.put(page.getTitle(), page);
+        if (previous != null) {
+            Path previousFile = Paths.get(previous.getContent()).toAbsolutePath().normalize();
+            Set<String> titles = titlesByFile.get(previousFile);
+            if (titles != null) {
+                titles.remove(page.getTitle());
+            }
+        }
+        titlesByFile.computeIfAbsent(file, key -> new HashSet<>()).add(page.getTitle());
+
+        Path directory = file.getParent();
+        if (directory != null && watchedDirectories.add(directory)) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        }
+    }
+
+    /**
+     * Retrieves the last error hit while reindexing a changed page.
+     *
+     * @return the last error, or null if every reindex succeeded
+     */
+    public IOException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Stops watching the page files and waits for the background thread to finish.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Handles change events until the watcher is closed. Changed titles are collected until no
+     * event has arrived for the debounce period, and then reindexed together.
+     */
+    private void run() {
+        Set<String> changedTitles = new LinkedHashSet<>();
+        long lastChange = 0;
+        try {
+            while (true) {
+                WatchKey key;
+                if (changedTitles.isEmpty()) {
+                    key = watchService.take();
+                } else {
+                    long remaining = lastChange + debounceMillis - System.currentTimeMillis();
+                    key = remaining > 0 ? watchService.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                }
+
+                if (key != null) {
+                    Path directory = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changedTitles.addAll(titlesFor(directory, event));
+                    }
+                    key.reset();
+                    lastChange = System.currentTimeMillis();
+                } else if (!changedTitles.isEmpty()) {
+                    reindex(changedTitles);
+                    changedTitles.clear();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // The watcher was closed
+        }
+    }
+
+    /**
+     * Finds the titles of the watched pages affected by a change event.
+     *
+     * @param directory the directory the event happened in
+     * @param event     the change event
+     * @return the titles of the pages whose file changed
+     */
+    private synchronized Set<String> titlesFor(Path directory, WatchEvent<?> event) {
+        Set<String> titles = new HashSet<>();
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            // Events were lost, so every page in the directory may have changed
+            for (Map.Entry<Path, Set<String>> entry : titlesByFile.entrySet()) {
+                if (directory.equals(entry.getKey().getParent())) {
+                    titles.addAll(entry.getValue());
+                }
+            }
+        } else {
+            titles.addAll(titlesByFile.getOrDefault(directory.resolve((Path) event.context()), Set.of()));
+        }
+        return titles;
+    }
+
+    /**
+     * Reindexes the pages with the given titles. Pages whose file was deleted keep their indexed
+     * paragraphs until the file is created again.
+     *
+     * @param titles the titles of the changed pages
+     */
+    private void reindex(Set<String> titles) {
+        List<Page> changedPages = new ArrayList<>();
+        synchronized (this) {
+            for (String title : titles) {
+                Page page = watchedPages.get(title);
+                if (page != null && Files.isReadable(Paths.get(page.getContent()))) {
+                    changedPages.add(page);
+                }
+            }
+        }
+        if (changedPages.isEmpty()) {
+            return;
+        }
+        try {
+            pageSearch.addPages(changedPages);
+        } catch (IOException e) {
+            lastError = e;
+            System.err.println("Error reindexing changed pages: " + e.getMessage());
+        }
+    }
+}
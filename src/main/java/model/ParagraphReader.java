@@ -0,0 +1,60 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the paragraphs of a page file one at a time. Paragraphs are separated by one or more
+ * empty lines. Only the lines of the current paragraph are held in memory, so large page files
+ * can be indexed without reading them whole.
+ */
+public class ParagraphReader implements Closeable {
+    private final BufferedReader reader; // The reader of the page file
+    private final StringBuilder paragraph; // The lines of the paragraph being read, reused between paragraphs
+
+    /**
+     * Constructs a new ParagraphReader over the specified reader.
+     *
+     * @param reader the reader of the page file
+     */
+    public ParagraphReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.paragraph = new StringBuilder();
+    }
+
+    /**
+     * Reads the next paragraph, skipping the empty lines before it.
+     *
+     * @return the lines of the paragraph joined by line breaks, or null if the end of the file is reached
+     * @throws IOException if an I/O error occurs
+     */
+    public String readParagraph() throws IOException {
+        paragraph.setLength(0);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (paragraph.length() > 0) {
+                    break;
+                }
+                continue;
+            }
+            if (paragraph.length() > 0) {
+                paragraph.append('\n');
+            }
+            paragraph.append(line);
+        }
+        return paragraph.length() == 0 ? null : paragraph.toString();
+    }
+
+    /**
+     * Closes the reader of the page file.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,598 @@
+package model;
+
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.search.similarities.BooleanSimilarity;
+import org.apache.lucene.search.similarities.ClassicSimilarity;
+import org.apache.lucene.search.similarities.Similarity;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * The SearchConfig class holds the settings of the page search subsystem.
+ * The settings are read once at startup, usually from system properties such as
+ * {@code -Dsearch.indexPath=/var/lib/portal/index}, or from a properties file named by
+ * {@code -Dsearch.config=search.properties}, which is useful to keep tuned relevance settings.
+ */
+public class SearchConfig {
+    public static final String INDEX_PATH_PROPERTY = "search.indexPath"; // Property naming the persistent index directory
+    public static final String CACHE_SIZE_PROPERTY = "search.cacheSize"; // Property for the number of cached queries
+    public static final String CACHE_MAX_AGE_PROPERTY = "search.cacheMaxAgeSeconds"; // Property for the age limit of cached results
+    public static final String SNIPPET_LENGTH_PROPERTY = "search.snippetLength"; // Property for the target length of result snippets
+    public static final String INDEX_THREADS_PROPERTY = "search.indexThreads"; // Property for the number of threads indexing pages in bulk
+    public static final String RAM_BUFFER_PROPERTY = "search.ramBufferMB"; // Property for the memory buffered before the index is flushed
+    public static final String WATCH_PAGES_PROPERTY = "search.watchPages"; // Property enabling reindexing of changed page files
+    public static final String WATCH_DEBOUNCE_PROPERTY = "search.watchDebounceMillis"; // Property for the quiet period before changed pages are reindexed
+    public static final String SEARCH_THREADS_PROPERTY = "search.searchThreads"; // Property for the number of threads searching segments of one query
+    public static final String SLICE_MAX_DOCS_PROPERTY = "search.sliceMaxDocs"; // Property for the number of documents searched by one thread
+    public static final String SLICE_MAX_SEGMENTS_PROPERTY = "search.sliceMaxSegments"; // Property for the number of segments searched by one thread
+    public static final String CONFIG_FILE_PROPERTY = "search.config"; // Property naming a file of search settings
+    public static final String TITLE_BOOST_PROPERTY = "search.titleBoost"; // Property for the weight of matches in page titles
+    public static final String CONTENT_BOOST_PROPERTY = "search.contentBoost"; // Property for the weight of matches in paragraphs
+    public static final String SIMILARITY_PROPERTY = "search.similarity"; // Property naming the scoring model
+    public static final String BM25_K1_PROPERTY = "search.bm25.k1"; // Property for the term frequency saturation of BM25
+    public static final String BM25_B_PROPERTY = "search.bm25.b"; // Property for the length normalization of BM25
+    public static final String ASYNC_STARTUP_PROPERTY = "search.asyncStartup"; // Property for building the index on a background thread
+    public static final String READY_TIMEOUT_PROPERTY = "search.readyTimeoutMillis"; // Property for how long searches wait for the index
+    public static final String WARM_UP_QUERIES_PROPERTY = "search.warmUpQueries"; // Property naming a file of queries replayed at startup
+    public static final String WARM_UP_PAGE_SIZE_PROPERTY = "search.warmUpPageSize"; // Property for the number of results of each warm-up query
+    public static final String METRICS_REPORT_PROPERTY = "search.metricsReportSeconds"; // Property for the period of printing search metrics
+    private String indexPath; // Directory of the persistent index, or null to keep the index in memory
+    private int cacheSize; // Maximum number of queries whose results are cached, 0 disables the cache
+    private long cacheMaxAgeSeconds; // Maximum age of cached results in seconds
+    private int snippetLength; // Target length in characters of the snippet shown for a result
+    private int indexThreads; // Number of threads reading and analyzing pages when many are indexed at once
+    private double ramBufferMB; // Memory in megabytes used to buffer indexed paragraphs before they are flushed
+    private int searchThreads; // Number of threads searching the segments of one query, 0 searches them on the calling thread
+    private int sliceMaxDocs; // Maximum number of documents in the segments searched by one thread
+    private int sliceMaxSegments; // Maximum number of segments searched by one thread
+    private float titleBoost; // Weight of query matches in page titles
+    private float contentBoost; // Weight of query matches in paragraph text
+    private String similarity; // Name of the scoring model: bm25, classic or boolean
+    private float bm25K1; // Term frequency saturation of BM25
+    private float bm25B; // Length normalization of BM25, from 0 for none to 1 for full
+    private boolean watchPages; // Whether page files are watched and reindexed when they change on disk
+    private long watchDebounceMillis; // Quiet period in milliseconds after the last change before pages are reindexed
+    private boolean asyncStartup; // Whether the index is built and warmed on a background thread
+    private long readyTimeoutMillis; // Time in milliseconds a search waits for the index to be ready
+    private List<String> warmUpQueries; // Common queries replayed once the index is built
+    private int warmUpPageSize; // Number of results collected for each warm-up query
+    private long metricsReportSeconds; // Period in seconds of printing the search metrics, 0 disables it
+
+    /**
+     * Constructs a new SearchConfig with default values, keeping the index in memory.
+     */
+    public SearchConfig() {
+        indexPath = null;
+        cacheSize = 256;
+        cacheMaxAgeSeconds = 300;
+        snippetLength = 200;
+        indexThreads = Runtime.getRuntime().availableProcessors();
+        ramBufferMB = 64;
+        searchThreads = 0;
+        sliceMaxDocs = 250000;
+        sliceMaxSegments = 5;
+        titleBoost = 2;
+        contentBoost = 1;
+        similarity = "bm25";
+        bm25K1 = 1.2f;
+        bm25B = 0.75f;
+        watchPages = false;
+        watchDebounceMillis = 500;
+        asyncStartup = true;
+        readyTimeoutMillis = 5000;
+        warmUpQueries = new ArrayList<>();
+        warmUpPageSize = 4;
+        metricsReportSeconds = 0;
+    }
+
+    /**
+     * Creates a SearchConfig from the given properties. Missing properties keep their default values.
+     * If the properties name a settings file, the settings in the file are used for the properties
+     * that are not given directly.
+     *
+     * @param properties the properties to read the settings from
+     * @return the SearchConfig holding the settings
+     * @throws UncheckedIOException if the settings file or the warm-up queries cannot be read
+     */
+    public static SearchConfig fromProperties(Properties properties) {
+        String configFile = properties.getProperty(CONFIG_FILE_PROPERTY);
+        if (configFile != null && !configFile.isBlank()) {
+            Properties fileProperties = new Properties();
+            try (Reader reader = Files.newBufferedReader(Paths.get(configFile))) {
+                fileProperties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading search settings " + configFile, e);
+            }
+            fileProperties.putAll(properties);
+            properties = fileProperties;
+        }
+
+        SearchConfig config = new SearchConfig();
+        String indexPath = properties.getProperty(INDEX_PATH_PROPERTY);
+        if (indexPath != null && !indexPath.isBlank()) {
+            config.setIndexPath(indexPath);
+        }
+        config.setCacheSize(Integer.parseInt(properties.getProperty(CACHE_SIZE_PROPERTY,
+                String.valueOf(config.getCacheSize()))));
+        config.setCacheMaxAgeSeconds(Long.parseLong(properties.getProperty(CACHE_MAX_AGE_PROPERTY,
+                String.valueOf(config.getCacheMaxAgeSeconds()))));
+        config.setSnippetLength(Integer.parseInt(properties.getProperty(SNIPPET_LENGTH_PROPERTY,
+                String.valueOf(config.getSnippetLength()))));
+        config.setIndexThreads(Integer.parseInt(properties.getProperty(INDEX_THREADS_PROPERTY,
+                String.valueOf(config.getIndexThreads()))));
+        config.setRamBufferMB(Double.parseDouble(properties.getProperty(RAM_BUFFER_PROPERTY,
+                String.valueOf(config.getRamBufferMB()))));
+        config.setSearchThreads(Integer.parseInt(properties.getProperty(SEARCH_THREADS_PROPERTY,
+                String.valueOf(config.getSearchThreads()))));
+        config.setSliceMaxDocs(Integer.parseInt(properties.getProperty(SLICE_MAX_DOCS_PROPERTY,
+                String.valueOf(config.getSliceMaxDocs()))));
+        config.setSliceMaxSegments(Integer.parseInt(properties.getProperty(SLICE_MAX_SEGMENTS_PROPERTY,
+                String.valueOf(config.getSliceMaxSegments()))));
+        config.setTitleBoost(Float.parseFloat(properties.getProperty(TITLE_BOOST_PROPERTY,
+                String.valueOf(config.getTitleBoost()))));
+        config.setContentBoost(Float.parseFloat(properties.getProperty(CONTENT_BOOST_PROPERTY,
+                String.valueOf(config.getContentBoost()))));
+        config.setSimilarity(properties.getProperty(SIMILARITY_PROPERTY, config.getSimilarity()));
+        config.setBm25K1(Float.parseFloat(properties.getProperty(BM25_K1_PROPERTY,
+                String.valueOf(config.getBm25K1()))));
+        config.setBm25B(Float.parseFloat(properties.getProperty(BM25_B_PROPERTY,
+                String.valueOf(config.getBm25B()))));
+        config.setWatchPages(Boolean.parseBoolean(properties.getProperty(WATCH_PAGES_PROPERTY,
+                String.valueOf(config.isWatchPages()))));
+        config.setWatchDebounceMillis(Long.parseLong(properties.getProperty(WATCH_DEBOUNCE_PROPERTY,
+                String.valueOf(config.getWatchDebounceMillis()))));
+        config.setAsyncStartup(Boolean.parseBoolean(properties.getProperty(ASYNC_STARTUP_PROPERTY,
+                String.valueOf(config.isAsyncStartup()))));
+        config.setReadyTimeoutMillis(Long.parseLong(properties.getProperty(READY_TIMEOUT_PROPERTY,
+                String.valueOf(config.getReadyTimeoutMillis()))));
+        config.setWarmUpPageSize(Integer.parseInt(properties.getProperty(WARM_UP_PAGE_SIZE_PROPERTY,
+                String.valueOf(config.getWarmUpPageSize()))));
+        config.setMetricsReportSeconds(Long.parseLong(properties.getProperty(METRICS_REPORT_PROPERTY,
+                String.valueOf(config.getMetricsReportSeconds()))));
+        String warmUpQueries = properties.getProperty(WARM_UP_QUERIES_PROPERTY);
+        if (warmUpQueries != null && !warmUpQueries.isBlank()) {
+            config.setWarmUpQueries(readQueries(warmUpQueries));
+        }
+        return config;
+    }
+
+    /**
+     * Reads a file of queries, one per line. Blank lines and lines starting with # are ignored.
+     *
+     * @param path the path of the file
+     * @return the queries in the order of the file
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    private static List<String> readQueries(String path) {
+        List<String> queries = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(Paths.get(path))) {
+                String query = line.trim();
+                if (!query.isEmpty() && !query.startsWith("#")) {
+                    queries.add(query);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading warm-up queries " + path, e);
+        }
+        return queries;
+    }
+
+    /**
+     * Checks if the index is stored on disk.
+     *
+     * @return true if a persistent index directory is configured, false otherwise
+     */
+    public boolean isPersistent() {
+        return indexPath != null;
+    }
+
+    /**
+     * Retrieves the directory of the persistent index.
+     *
+     * @return the index directory, or null if the index is kept in memory
+     */
+    public String getIndexPath() {
+        return indexPath;
+    }
+
+    /**
+     * Sets the directory of the persistent index.
+     *
+     * @param indexPath the index directory, or null to keep the index in memory
+     */
+    public void setIndexPath(String indexPath) {
+        this.indexPath = indexPath;
+    }
+
+    /**
+     * Retrieves the maximum number of queries whose results are cached.
+     *
+     * @return the size of the result cache
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets the maximum number of queries whose results are cached.
+     *
+     * @param cacheSize the size of the result cache, 0 disables the cache
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Retrieves the maximum age of cached results.
+     *
+     * @return the maximum age in seconds
+     */
+    public long getCacheMaxAgeSeconds() {
+        return cacheMaxAgeSeconds;
+    }
+
+    /**
+     * Sets the maximum age of cached results.
+     *
+     * @param cacheMaxAgeSeconds the maximum age in seconds
+     */
+    public void setCacheMaxAgeSeconds(long cacheMaxAgeSeconds) {
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+    }
+
+    /**
+     * Retrieves the target length of the snippet shown for a result.
+     *
+     * @return the snippet length in characters
+     */
+    public int getSnippetLength() {
+        return snippetLength;
+    }
+
+    /**
+     * Sets the target length of the snippet shown for a result.
+     *
+     * @param snippetLength the snippet length in characters
+     */
+    public void setSnippetLength(int snippetLength) {
+        this.snippetLength = snippetLength;
+    }
+
+    /**
+     * Retrieves the number of threads reading and analyzing pages when many are indexed at once.
+     *
+     * @return the number of indexing threads
+     */
+    public int getIndexThreads() {
+        return indexThreads;
+    }
+
+    /**
+     * Sets the number of threads reading and analyzing pages when many are indexed at once.
+     *
+     * @param indexThreads the number of indexing threads, 1 indexes pages on the calling thread
+     */
+    public void setIndexThreads(int indexThreads) {
+        this.indexThreads = indexThreads;
+    }
+
+    /**
+     * Retrieves the memory used to buffer indexed paragraphs before they are flushed to the index.
+     *
+     * @return the buffer size in megabytes
+     */
+    public double getRamBufferMB() {
+        return ramBufferMB;
+    }
+
+    /**
+     * Sets the memory used to buffer indexed paragraphs before they are flushed to the index.
+     *
+     * @param ramBufferMB the buffer size in megabytes
+     */
+    public void setRamBufferMB(double ramBufferMB) {
+        this.ramBufferMB = ramBufferMB;
+    }
+
+    /**
+     * Retrieves the number of threads searching the segments of one query.
+     *
+     * @return the number of search threads, 0 if segments are searched on the calling thread
+     */
+    public int getSearchThreads() {
+        return searchThreads;
+    }
+
+    /**
+     * Sets the number of threads searching the segments of one query.
+     *
+     * @param searchThreads the number of search threads, 0 to search segments on the calling thread
+     */
+    public void setSearchThreads(int searchThreads) {
+        this.searchThreads = searchThreads;
+    }
+
+    /**
+     * Retrieves the maximum number of documents in the segments searched by one thread.
+     *
+     * @return the maximum number of documents per slice
+     */
+    public int getSliceMaxDocs() {
+        return sliceMaxDocs;
+    }
+
+    /**
+     * Sets the maximum number of documents in the segments searched by one thread.
+     * Segments larger than this are searched by a thread of their own.
+     *
+     * @param sliceMaxDocs the maximum number of documents per slice
+     */
+    public void setSliceMaxDocs(int sliceMaxDocs) {
+        this.sliceMaxDocs = sliceMaxDocs;
+    }
+
+    /**
+     * Retrieves the maximum number of segments searched by one thread.
+     *
+     * @return the maximum number of segments per slice
+     */
+    public int getSliceMaxSegments() {
+        return sliceMaxSegments;
+    }
+
+    /**
+     * Sets the maximum number of segments searched by one thread.
+     *
+     * @param sliceMaxSegments the maximum number of segments per slice
+     */
+    public void setSliceMaxSegments(int sliceMaxSegments) {
+        this.sliceMaxSegments = sliceMaxSegments;
+    }
+
+    /**
+     * Retrieves the weight of query matches in page titles.
+     *
+     * @return the title boost
+     */
+    public float getTitleBoost() {
+        return titleBoost;
+    }
+
+    /**
+     * Sets the weight of query matches in page titles.
+     *
+     * @param titleBoost the title boost
+     */
+    public void setTitleBoost(float titleBoost) {
+        this.titleBoost = titleBoost;
+    }
+
+    /**
+     * Retrieves the weight of query matches in paragraph text.
+     *
+     * @return the content boost
+     */
+    public float getContentBoost() {
+        return contentBoost;
+    }
+
+    /**
+     * Sets the weight of query matches in paragraph text.
+     *
+     * @param contentBoost the content boost
+     */
+    public void setContentBoost(float contentBoost) {
+        this.contentBoost = contentBoost;
+    }
+
+    /**
+     * Retrieves the name of the scoring model.
+     *
+     * @return the scoring model, bm25, classic or boolean
+     */
+    public String getSimilarity() {
+        return similarity;
+    }
+
+    /**
+     * Sets the name of the scoring model.
+     *
+     * @param similarity the scoring model, bm25, classic or boolean
+     */
+    public void setSimilarity(String similarity) {
+        this.similarity = similarity;
+    }
+
+    /**
+     * Retrieves the term frequency saturation of BM25.
+     *
+     * @return the k1 parameter
+     */
+    public float getBm25K1() {
+        return bm25K1;
+    }
+
+    /**
+     * Sets the term frequency saturation of BM25.
+     *
+     * @param bm25K1 the k1 parameter
+     */
+    public void setBm25K1(float bm25K1) {
+        this.bm25K1 = bm25K1;
+    }
+
+    /**
+     * Retrieves the length normalization of BM25.
+     *
+     * @return the b parameter
+     */
+    public float getBm25B() {
+        return bm25B;
+    }
+
+    /**
+     * Sets the length normalization of BM25.
+     *
+     * @param bm25B the b parameter, from 0 for no length normalization to 1 for full
+     */
+    public void setBm25B(float bm25B) {
+        this.bm25B = bm25B;
+    }
+
+    /**
+     * Creates the scoring model named by the settings. All the models share the same index format,
+     * so the model can be changed without indexing the pages again.
+     *
+     * @return the similarity used for indexing and searching
+     * @throws IllegalArgumentException if the scoring model is unknown
+     */
+    public Similarity createSimilarity() {
+        switch (similarity.toLowerCase(Locale.ROOT)) {
+            case "bm25":
+                return new BM25Similarity(bm25K1, bm25B);
+            case "classic":
+                return new ClassicSimilarity();
+            case "boolean":
+                return new BooleanSimilarity();
+            default:
+                throw new IllegalArgumentException("Unknown search similarity: " + similarity);
+        }
+    }
+
+    /**
+     * Checks if page files are watched and reindexed when they change on disk.
+     *
+     * @return true if page files are watched, false otherwise
+     */
+    public boolean isWatchPages() {
+        return watchPages;
+    }
+
+    /**
+     * Sets whether page files are watched and reindexed when they change on disk.
+     *
+     * @param watchPages true to watch page files, false otherwise
+     */
+    public void setWatchPages(boolean watchPages) {
+        this.watchPages = watchPages;
+    }
+
+    /**
+     * Retrieves the quiet period after the last change to a page file before the page is reindexed.
+     *
+     * @return the debounce period in milliseconds
+     */
+    public long getWatchDebounceMillis() {
+        return watchDebounceMillis;
+    }
+
+    /**
+     * Sets the quiet period after the last change to a page file before the page is reindexed.
+     *
+     * @param watchDebounceMillis the debounce period in milliseconds
+     */
+    public void setWatchDebounceMillis(long watchDebounceMillis) {
+        this.watchDebounceMillis = watchDebounceMillis;
+    }
+
+    /**
+     * Checks if the index is built and warmed on a background thread, so that startup does not wait for it.
+     *
+     * @return true if the index is built in the background, false if it is built before the search subsystem is returned
+     */
+    public boolean isAsyncStartup() {
+        return asyncStartup;
+    }
+
+    /**
+     * Sets whether the index is built and warmed on a background thread.
+     *
+     * @param asyncStartup true to build the index in the background, false to build it before returning
+     */
+    public void setAsyncStartup(boolean asyncStartup) {
+        this.asyncStartup = asyncStartup;
+    }
+
+    /**
+     * Retrieves how long a search waits for the index to be ready before searching the pages indexed so far.
+     *
+     * @return the timeout in milliseconds
+     */
+    public long getReadyTimeoutMillis() {
+        return readyTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a search waits for the index to be ready before searching the pages indexed so far.
+     *
+     * @param readyTimeoutMillis the timeout in milliseconds
+     */
+    public void setReadyTimeoutMillis(long readyTimeoutMillis) {
+        this.readyTimeoutMillis = readyTimeoutMillis;
+    }
+
+    /**
+     * Retrieves the common queries replayed once the index is built, so their results are cached and
+     * the parts of the index they read are loaded before the first user searches.
+     *
+     * @return the warm-up queries
+     */
+    public List<String> getWarmUpQueries() {
+        return warmUpQueries;
+    }
+
+    /**
+     * Sets the common queries replayed once the index is built.
+     *
+     * @param warmUpQueries the warm-up queries
+     */
+    public void setWarmUpQueries(List<String> warmUpQueries) {
+        this.warmUpQueries = warmUpQueries;
+    }
+
+    /**
+     * Retrieves the number of results collected for each warm-up query. It should match the number of
+     * results shown at a time, so that the warmed results are the ones served from the cache.
+     *
+     * @return the page size of the warm-up queries
+     */
+    public int getWarmUpPageSize() {
+        return warmUpPageSize;
+    }
+
+    /**
+     * Sets the number of results collected for each warm-up query.
+     *
+     * @param warmUpPageSize the page size of the warm-up queries
+     */
+    public void setWarmUpPageSize(int warmUpPageSize) {
+        this.warmUpPageSize = warmUpPageSize;
+    }
+
+    /**
+     * Retrieves the period of printing the search metrics to the error stream.
+     *
+     * @return the period in seconds, or 0 if the metrics are only dumped on demand
+     */
+    public long getMetricsReportSeconds() {
+        return metricsReportSeconds;
+    }
+
+    /**
+     * Sets the period of printing the search metrics to the error stream.
+     *
+     * @param metricsReportSeconds the period in seconds, or 0 to only dump the metrics on demand
+     */
+    public void setMetricsReportSeconds(long metricsReportSeconds) {
+        this.metricsReportSeconds = metricsReportSeconds;
+    }
+}
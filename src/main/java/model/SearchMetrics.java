@@ -0,0 +1,308 @@
+package model;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records where page searches spend their time and how useful their results are. Each stage of a search
+ * has a latency histogram with power-of-two microsecond buckets, and the searches are counted with their
+ * cache hits, result counts and searches that found nothing. Recording a measurement only updates atomic
+ * counters, so it allocates nothing and never blocks a search. The metrics can be dumped on demand, or
+ * printed on a schedule.
+ */
+public class SearchMetrics implements Closeable {
+    private static final int BUCKETS = 32; // Number of histogram buckets, the last one holds every longer latency
+
+    /**
+     * The timed stages of indexing and searching pages.
+     */
+    public enum Stage {
+        WAIT("waiting for the index"),
+        PARSE("query validation and parsing"),
+        INDEX("index building"),
+        SCORE("scoring"),
+        LOAD("stored-field loading"),
+        SNIPPET("snippet highlighting"),
+        SEARCH("whole search");
+
+        private final String description; // Description of the stage in the dump
+
+        /**
+         * Constructs a Stage.
+         *
+         * @param description the description of the stage in the dump
+         */
+        Stage(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Retrieves the description of the stage.
+         *
+         * @return the description
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final Histogram[] histograms; // Latency histogram of each stage, by ordinal
+    private final LongAdder searches; // Number of searches for a first page of results
+    private final LongAdder cacheHits; // Number of searches answered from the result cache
+    private final LongAdder zeroResultSearches; // Number of searches that found nothing
+    private final LongAdder results; // Total number of results returned by the searches
+    private ScheduledExecutorService reporter; // Thread printing the metrics on a schedule, or null
+
+    /**
+     * Constructs a new SearchMetrics object with every histogram and counter empty.
+     */
+    public SearchMetrics() {
+        histograms = new Histogram[Stage.values().length];
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+        searches = new LongAdder();
+        cacheHits = new LongAdder();
+        zeroResultSearches = new LongAdder();
+        results = new LongAdder();
+    }
+
+    /**
+     * Records the latency of a stage that started at the given time.
+     *
+     * @param stage      the stage
+     * @param startNanos the value of {@link System#nanoTime()} when the stage started
+     */
+    public void record(Stage stage, long startNanos) {
+        histograms[stage.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Counts a search for a first page of results.
+     *
+     * @param resultCount the number of results returned
+     * @param cacheHit    whether the results were answered from the cache
+     */
+    public void recordSearch(int resultCount, boolean cacheHit) {
+        searches.increment();
+        results.add(resultCount);
+        if (cacheHit) {
+            cacheHits.increment();
+        }
+        if (resultCount == 0) {
+            zeroResultSearches.increment();
+        }
+    }
+
+    /**
+     * Retrieves the latency histogram of a stage.
+     *
+     * @param stage the stage
+     * @return the histogram
+     */
+    public Histogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * Retrieves the number of searches for a first page of results.
+     *
+     * @return the number of searches
+     */
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    /**
+     * Retrieves the number of searches answered from the result cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Retrieves the number of searches not answered from the result cache.
+     *
+     * @return the number of cache misses
+     */
+    public long getCacheMisses() {
+        return searches.sum() - cacheHits.sum();
+    }
+
+    /**
+     * Retrieves the number of searches that found nothing.
+     *
+     * @return the number of zero-result searches
+     */
+    public long getZeroResultSearches() {
+        return zeroResultSearches.sum();
+    }
+
+    /**
+     * Retrieves the share of searches that found nothing.
+     *
+     * @return the zero-result rate, from 0 to 1, or 0 if nothing was searched
+     */
+    public double getZeroResultRate() {
+        long count = searches.sum();
+        return count == 0 ? 0 : (double) zeroResultSearches.sum() / count;
+    }
+
+    /**
+     * Retrieves the total number of results returned by the searches.
+     *
+     * @return the number of results
+     */
+    public long getResults() {
+        return results.sum();
+    }
+
+    /**
+     * Formats the counters and the latency of every stage that was recorded at least once.
+     *
+     * @return the metrics as text, one line per counter group and stage
+     */
+    public String dump() {
+        StringBuilder dump = new StringBuilder();
+        long count = getSearches();
+        dump.append(String.format(Locale.ROOT, "searches: %d, cache hits: %d, cache misses: %d, results: %d, "
+                        + "zero-result rate: %.1f%%%n", count, getCacheHits(), getCacheMisses(), getResults(),
+                getZeroResultRate() * 100));
+        for (Stage stage : Stage.values()) {
+            Histogram histogram = getHistogram(stage);
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            dump.append(String.format(Locale.ROOT, "%s: count %d, mean %d us, p50 < %d us, p99 < %d us, max %d us%n",
+                    stage.getDescription(), histogram.getCount(), histogram.getMeanMicros(),
+                    histogram.getPercentileMicros(0.5), histogram.getPercentileMicros(0.99), histogram.getMaxMicros()));
+        }
+        return dump.toString();
+    }
+
+    /**
+     * Prints the metrics on a background thread at a fixed period, replacing any earlier schedule.
+     *
+     * @param periodSeconds the period in seconds
+     * @param out           the stream the metrics are printed to
+     */
+    public synchronized void startReporting(long periodSeconds, PrintStream out) {
+        if (reporter != null) {
+            reporter.shutdownNow();
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> out.print(dump()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops printing the metrics on a schedule.
+     */
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * A latency histogram with power-of-two microsecond buckets: bucket i counts the latencies
+     * below 2^i microseconds that did not fit in bucket i - 1.
+     */
+    public static class Histogram {
+        private final AtomicLongArray buckets; // Number of latencies in each bucket
+        private final LongAdder count; // Number of recorded latencies
+        private final LongAdder totalNanos; // Sum of the recorded latencies in nanoseconds
+        private final AtomicLong maxNanos; // Longest recorded latency in nanoseconds
+
+        /**
+         * Constructs an empty Histogram.
+         */
+        Histogram() {
+            buckets = new AtomicLongArray(BUCKETS);
+            count = new LongAdder();
+            totalNanos = new LongAdder();
+            maxNanos = new AtomicLong();
+        }
+
+        /**
+         * Records a latency.
+         *
+         * @param nanos the latency in nanoseconds
+         */
+        void record(long nanos) {
+            long micros = Math.max(0, nanos) / 1000;
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * Retrieves the number of recorded latencies.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Retrieves the mean of the recorded latencies.
+         *
+         * @return the mean in microseconds, or 0 if nothing was recorded
+         */
+        public long getMeanMicros() {
+            long recorded = count.sum();
+            return recorded == 0 ? 0 : totalNanos.sum() / recorded / 1000;
+        }
+
+        /**
+         * Retrieves the longest recorded latency.
+         *
+         * @return the maximum in microseconds
+         */
+        public long getMaxMicros() {
+            return maxNanos.get() / 1000;
+        }
+
+        /**
+         * Retrieves an upper bound of a percentile of the recorded latencies, the upper edge of the
+         * bucket holding it.
+         *
+         * @param fraction the percentile as a fraction, for example 0.99
+         * @return the upper bound in microseconds, or 0 if nothing was recorded
+         */
+        public long getPercentileMicros(double fraction) {
+            long recorded = 0;
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                recorded += counts[i];
+            }
+            long rank = (long) Math.ceil(fraction * recorded);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return i == BUCKETS - 1 ? getMaxMicros() : 1L << i;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package model;
+
+import org.apache.lucene.search.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The SearchResultCache class keeps the first page of results of recent searches so that repeated
+ * queries skip scoring. Entries are keyed by the compiled query, the page size, the visibility class
+ * of the user (guest or authenticated) and whether hits are collapsed per page title, so query strings
+ * compiling to equal queries share an entry. Entries are evicted in least-recently-used order once the
+ * cache is full, and expire after a maximum age. The whole cache is invalidated when the pages change.
+ */
+public class SearchResultCache {
+    private final int maxEntries; // Maximum number of cached queries
+    private final long maxAgeNanos; // Maximum age of a cached entry in nanoseconds
+    private final LinkedHashMap<Key, Entry> entries; // Cached entries in least-recently-used order
+    private long generation; // Incremented on every invalidation to discard results of searches that raced with it
+    private long hits; // Number of lookups answered from the cache
+    private long misses; // Number of lookups not answered from the cache
+
+    /**
+     * Constructs a new SearchResultCache with the given limits.
+     *
+     * @param maxEntries    the maximum number of cached queries, 0 disables the cache
+     * @param maxAgeSeconds the maximum age of a cached entry in seconds
+     */
+    public SearchResultCache(int maxEntries, long maxAgeSeconds) {
+        this.maxEntries = maxEntries;
+        this.maxAgeNanos = maxAgeSeconds * 1_000_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > SearchResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Creates the cache key for a query, a page size and a visibility class.
+     *
+     * @param query          the compiled query
+     * @param includePrivate whether private pages are searched
+     * @param pageSize       the number of results on the cached page
+     * @return the cache key
+     */
+    public static Key key(Query query, boolean includePrivate, int pageSize) {
+        return key(query, includePrivate, pageSize, false);
+    }
+
+    /**
+     * Creates the cache key for a query, a page size, a visibility class and whether hits are collapsed
+     * per page title. Keys are compared with {@link Query#equals(Object)}, which ignores the order of
+     * optional clauses, rather than with the string form of the query, which is built on every lookup.
+     *
+     * @param query          the compiled query
+     * @param includePrivate whether private pages are searched
+     * @param pageSize       the number of results on the cached page
+     * @param collapsed      whether only the best paragraph of each page is returned
+     * @return the cache key
+     */
+    public static Key key(Query query, boolean includePrivate, int pageSize, boolean collapsed) {
+        return new Key(query, includePrivate, pageSize, collapsed);
+    }
+
+    /**
+     * Retrieves the cached results for a key, if they are present and not expired.
+     *
+     * @param key the cache key
+     * @return the cached results, or null if there is no valid entry
+     */
+    public synchronized PageSearchResults get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.createdAt > maxAgeNanos) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.results;
+    }
+
+    /**
+     * Caches the results of a search. The results are dropped if the cache was invalidated
+     * since the search started.
+     *
+     * @param key        the cache key
+     * @param results    the results to cache
+     * @param generation the generation of the cache when the search started
+     */
+    public synchronized void put(Key key, PageSearchResults results, long generation) {
+        if (maxEntries > 0 && generation == this.generation) {
+            entries.put(key, new Entry(results, System.nanoTime()));
+        }
+    }
+
+    /**
+     * Removes all entries, typically because the pages changed.
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+        generation++;
+    }
+
+    /**
+     * Retrieves the current generation of the cache, to be passed to {@link #put} after searching.
+     *
+     * @return the current generation
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Retrieves the number of cached queries.
+     *
+     * @return the number of entries in the cache
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Retrieves the number of lookups answered from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Retrieves the number of lookups not answered from the cache.
+     *
+     * @return the number of cache misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The key of a cached page of results. Lucene queries are immutable, so the key can hold the query.
+     */
+    public static final class Key {
+        private final Query query; // The compiled query
+        private final boolean includePrivate; // Whether private pages are searched
+        private final int pageSize; // The number of results on the cached page
+        private final boolean collapsed; // Whether only the best paragraph of each page is returned
+        private final int hash; // The hash code, computed once since every lookup needs it
+
+        /**
+         * Constructs a new Key.
+         *
+         * @param query          the compiled query
+         * @param includePrivate whether private pages are searched
+         * @param pageSize       the number of results on the cached page
+         * @param collapsed      whether only the best paragraph of each page is returned
+         */
+        private Key(Query query, boolean includePrivate, int pageSize, boolean collapsed) {
+            this.query = query;
+            this.includePrivate = includePrivate;
+            this.pageSize = pageSize;
+            this.collapsed = collapsed;
+            this.hash = Objects.hash(query, includePrivate, pageSize, collapsed);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return includePrivate == key.includePrivate && pageSize == key.pageSize && collapsed == key.collapsed
+                    && query.equals(key.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A cached list of results with the time it was created.
+     */
+    private static class Entry {
+        private final PageSearchResults results; // The cached results
+        private final long createdAt; // The time the entry was created, from System.nanoTime()
+
+        /**
+         * Constructs a new Entry.
+         *
+         * @param results   the cached results
+         * @param createdAt the time the entry was created
+         */
+        Entry(PageSearchResults results, long createdAt) {
+            this.results = results;
+            this.createdAt = createdAt;
+        }
+    }
+}
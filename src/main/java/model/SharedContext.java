@@ -1,38 +1,260 @@
 package model;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.*;
 
 /**
  * The SharedContext class represents a shared context for managing various aspects of the system.
  * It includes functionality related to users, inquiries, FAQ updates, and pages.
  */
-public class SharedContext {
+public class SharedContext implements Closeable {
     public static final String ADMIN_STAFF_EMAIL = "admin@example.com"; // Email for admin staff
     private Map<String, Collection<String>> faqTopicUpdateSubscribers; // Map of FAQ topic subscribers
     private User currentUser; // Current user in the shared context
     private List<Inquiry> inquiries; // List of inquiries
-    private FAQ faq; // FAQ object
+    private volatile FAQ faq; // The current FAQ snapshot, replaced as a whole when the FAQ is edited
+    private final Object faqLock = new Object(); // Serialises FAQ edits, readers never take it
+    private FAQSearch faqSearch; // Full-text index over the FAQ items
+    private FAQStore faqStore; // Persistent store of the FAQ, or null if the FAQ is kept in memory
     private HashMap<String, Page> pages; // HashMap of pages
-
+    private PageSearch pageSearch; // Search index over the pages, kept for the lifetime of the context
+    private SearchConfig searchConfig; // Settings of the page search subsystem
+    private PageWatcher pageWatcher; // Watcher reindexing pages whose files change, or null if disabled
 
     /**
-     * Constructs a new SharedContext object with default values.
+     * Constructs a new SharedContext object with default values, keeping the search index in memory.
      */
     public SharedContext() {
+        this(new SearchConfig());
+    }
+
+    /**
+     * Constructs a new SharedContext object with default values and the given search settings, keeping
+     * the FAQ in memory. If the settings name a persistent index, the pages stored in it are restored.
+     *
+     * @param searchConfig the settings of the page search subsystem
+     */
+    public SharedContext(SearchConfig searchConfig) {
+        this(searchConfig, new FAQStoreConfig());
+    }
+
+    /**
+     * Constructs a new SharedContext object with default values and the given search and FAQ store settings.
+     * If the settings name a persistent index, the pages stored in it are restored, and if they name a
+     * FAQ store, the FAQ stored in it is restored.
+     *
+     * @param searchConfig   the settings of the page search subsystem
+     * @param faqStoreConfig the settings of the persistent FAQ store
+     */
+    public SharedContext(SearchConfig searchConfig, FAQStoreConfig faqStoreConfig) {
         currentUser = new Guest();
         inquiries = new ArrayList<>();
         pages = new HashMap<>();
-        faq = new FAQ();
+        faqStore = createFAQStore(faqStoreConfig);
+        faq = faqStore == null ? new FAQ() : faqStore.getRecoveredFaq();
+        faqSearch = createFAQSearch(faq);
         faqTopicUpdateSubscribers = new HashMap<>();
+        this.searchConfig = searchConfig;
+        pageSearch = createPageSearch(pages, searchConfig);
+        pageWatcher = createPageWatcher(pageSearch, pages, searchConfig);
+    }
+
+    /**
+     * Creates the search index over the given pages.
+     *
+     * @param pages        the pages to index
+     * @param searchConfig the settings of the page search subsystem
+     * @return the PageSearch indexing the pages
+     */
+    private static PageSearch createPageSearch(HashMap<String, Page> pages, SearchConfig searchConfig) {
+        try {
+            return new PageSearch(pages, searchConfig);
+        } catch (IOException e) {
+            throw new RuntimeException("Error initialising page search", e);
+        }
     }
 
     /**
-     * Adds a page to the shared context.
+     * Opens the persistent store of the FAQ, if one is named in the settings.
+     *
+     * @param faqStoreConfig the settings naming the FAQ store directory
+     * @return the FAQStore holding the FAQ, or null if the FAQ is kept in memory
+     */
+    private static FAQStore createFAQStore(FAQStoreConfig faqStoreConfig) {
+        if (faqStoreConfig.getStorePath() == null) {
+            return null;
+        }
+        try {
+            return new FAQStore(Paths.get(faqStoreConfig.getStorePath()), faqStoreConfig.getCompactEvery());
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading FAQ store", e);
+        }
+    }
+
+    /**
+     * Creates the full-text index over the items of the given FAQ.
+     *
+     * @param faq the FAQ to index
+     * @return the FAQSearch indexing the FAQ
+     */
+    private static FAQSearch createFAQSearch(FAQ faq) {
+        try {
+            return new FAQSearch(faq);
+        } catch (IOException e) {
+            throw new RuntimeException("Error initialising FAQ search", e);
+        }
+    }
+
+    /**
+     * Creates the watcher reindexing pages whose files change, if enabled in the settings.
+     *
+     * @param pageSearch   the search index the changed pages are reindexed into
+     * @param pages        the pages to watch
+     * @param searchConfig the settings of the page search subsystem
+     * @return the PageWatcher watching the pages, or null if watching is disabled
+     */
+    private static PageWatcher createPageWatcher(PageSearch pageSearch, HashMap<String, Page> pages,
+                                                 SearchConfig searchConfig) {
+        if (!searchConfig.isWatchPages()) {
+            return null;
+        }
+        try {
+            PageWatcher watcher = new PageWatcher(pageSearch, searchConfig.getWatchDebounceMillis());
+            for (Page page : pages.values()) {
+                watcher.watch(page);
+            }
+            return watcher;
+        } catch (IOException e) {
+            throw new RuntimeException("Error initialising page watcher", e);
+        }
+    }
+
+    /**
+     * Adds a page to the shared context and to the search index.
+     * The page is only added if it could be indexed. If page files are watched, the page is
+     * reindexed whenever its file changes.
      *
      * @param page the page to add
+     * @throws IOException if the content of the page cannot be indexed
      */
-    public void addPage(Page page) {
+    public void addPage(Page page) throws IOException {
+        pageSearch.addPage(page);
         pages.put(page.getTitle(), page);
+        if (pageWatcher != null) {
+            pageWatcher.watch(page);
+        }
+    }
+
+    /**
+     * Adds many pages to the shared context and indexes them in one batch with a single commit.
+     * If some pages cannot be indexed, the other pages are still indexed, and exactly those are added,
+     * so the pages of the shared context always match the searched pages.
+     *
+     * @param newPages the pages to add
+     * @throws PageIndexingException if some of the pages cannot be indexed; it names the pages that were added
+     * @throws IOException           if an I/O error occurs
+     */
+    public void addPages(Collection<Page> newPages) throws IOException {
+        try {
+            pageSearch.addPages(newPages);
+        } catch (PageIndexingException e) {
+            registerPages(e.getIndexedPages());
+            throw e;
+        }
+        registerPages(newPages);
+    }
+
+    /**
+     * Adds indexed pages to the pages map, and watches their files if page files are watched.
+     *
+     * @param indexedPages the indexed pages
+     * @throws IOException if a page file cannot be watched
+     */
+    private void registerPages(Collection<Page> indexedPages) throws IOException {
+        for (Page page : indexedPages) {
+            pages.put(page.getTitle(), page);
+            if (pageWatcher != null) {
+                pageWatcher.watch(page);
+            }
+        }
+    }
+
+    /**
+     * Adds a section to the FAQ by publishing a new FAQ snapshot. Readers of the previous snapshot are
+     * not affected. If the FAQ is stored, the section is logged before it is published.
+     *
+     * @param parent the parent section, or null to add a top-level section
+     * @param topic  the topic of the new section
+     * @return the new section, as found in the new snapshot
+     * @throws IllegalArgumentException if the parent already has a section with the same topic
+     * @throws UncheckedIOException     if the section cannot be stored; it is not added to the FAQ
+     */
+    public FAQSection addFAQSection(FAQSection parent, String topic) {
+        synchronized (faqLock) {
+            FAQ newFaq = faq.withSection(parent, new FAQSection(topic));
+            if (faqStore != null) {
+                try {
+                    faqStore.logSection(parent == null ? List.of() : parent.getTopicPath(), topic, false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error storing FAQ section " + topic, e);
+                }
+            }
+            faq = newFaq;
+            compactFAQStore();
+            return newFaq.getSubsection(parent, topic);
+        }
+    }
+
+    /**
+     * Adds a question and answer to a FAQ section by publishing a new FAQ snapshot, and adds the item
+     * to the FAQ search index. If the FAQ is stored, the item is logged before it is published.
+     * A failure to index the item is only reported, since the item is already published; the item is
+     * indexed again the next time the FAQ search index is rebuilt.
+     *
+     * @param section  the section to add the item to, from the current or an earlier snapshot
+     * @param question the question of the item
+     * @param answer   the answer to the question
+     * @return the new version of the section, holding the added item
+     * @throws UncheckedIOException if the item cannot be stored; it is not added to the FAQ
+     */
+    public FAQSection addFAQItem(FAQSection section, String question, String answer) {
+        synchronized (faqLock) {
+            FAQ newFaq = faq.withItem(section, question, answer);
+            if (faqStore != null) {
+                try {
+                    faqStore.logItem(section.getTopicPath(), question, answer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error storing FAQ item " + question, e);
+                }
+            }
+            faq = newFaq;
+            compactFAQStore();
+            FAQSection updated = newFaq.getSection(section.getTopicPath());
+            try {
+                faqSearch.addItem(newFaq, updated, updated.getItems().get(updated.getItems().size() - 1));
+            } catch (IOException e) {
+                System.err.println("Error indexing FAQ item: " + e.getMessage());
+            }
+            return updated;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the FAQ to the store if enough edits have been logged since the last one.
+     * A failed snapshot is only reported, since the edits are still in the log and it is retried after the next edit.
+     */
+    private void compactFAQStore() {
+        if (faqStore == null) {
+            return;
+        }
+        try {
+            faqStore.compactIfDue(faq);
+        } catch (IOException e) {
+            System.err.println("Error writing FAQ snapshot: " + e.getMessage());
+        }
     }
 
     /**
@@ -133,7 +355,8 @@ public class SharedContext {
     }
 
     /**
-     * Retrieves the FAQ object in the shared context.
+     * Retrieves the current FAQ snapshot in the shared context. The snapshot never changes, so it can be
+     * read without locking; edits publish a new snapshot.
      *
      * @return the FAQ object
      */
@@ -142,12 +365,45 @@ public class SharedContext {
     }
 
     /**
-     * Sets the FAQ object in the shared context.
+     * Sets the FAQ object in the shared context. The FAQ search index is rebuilt over the new FAQ,
+     * and if the FAQ is stored, the new FAQ replaces the stored one.
      *
      * @param faq the FAQ object to set
      */
     public void setFaq(FAQ faq) {
-        this.faq = faq;
+        synchronized (faqLock) {
+            if (faqStore != null) {
+                try {
+                    faqStore.writeSnapshot(faq);
+                } catch (IOException e) {
+                    throw new RuntimeException("Error storing FAQ", e);
+                }
+            }
+            this.faq = faq;
+            try {
+                faqSearch.rebuild(faq);
+            } catch (IOException e) {
+                throw new RuntimeException("Error indexing FAQ", e);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the full-text index over the FAQ items.
+     *
+     * @return the FAQSearch object
+     */
+    public FAQSearch getFaqSearch() {
+        return faqSearch;
+    }
+
+    /**
+     * Retrieves the persistent store of the FAQ.
+     *
+     * @return the FAQStore object, or null if the FAQ is kept in memory
+     */
+    public FAQStore getFaqStore() {
+        return faqStore;
     }
 
     /**
@@ -161,11 +417,59 @@ public class SharedContext {
 
     /**
      * Sets the HashMap of pages in
-     * the shared context.
+     * the shared context. The search index is reopened over the new pages.
      *
      * @param pages the HashMap of pages to set
      */
     public void setPages(HashMap<String, Page> pages) {
+        // The old index must be closed first, a persistent index can only have one writer
+        try {
+            if (pageWatcher != null) {
+                pageWatcher.close();
+            }
+            pageSearch.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Error closing page search", e);
+        }
         this.pages = pages;
+        this.pageSearch = createPageSearch(pages, searchConfig);
+        this.pageWatcher = createPageWatcher(pageSearch, pages, searchConfig);
+    }
+
+    /**
+     * Retrieves the search index over the pages in the shared context.
+     *
+     * @return the PageSearch object
+     */
+    public PageSearch getPageSearch() {
+        return pageSearch;
+    }
+
+    /**
+     * Closes the page watcher, the search indexes and the FAQ store of the shared context. Every resource
+     * is closed even if closing another one fails.
+     *
+     * @throws IOException if an I/O error occurs while closing one of the resources
+     */
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (Closeable resource : Arrays.asList(pageWatcher, pageSearch, faqSearch, faqStore)) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
     }
 }
@@ -0,0 +1,75 @@
+package model;
+
+import org.apache.lucene.search.uhighlight.Passage;
+import org.apache.lucene.search.uhighlight.PassageFormatter;
+
+/**
+ * Formats the passages picked by the highlighter into a snippet of a paragraph.
+ * Matched terms are wrapped in markers, and consecutive matches separated only by spaces or
+ * punctuation share one pair of markers, so a matched phrase reads as a single highlight.
+ * Text cut from the start or end of the paragraph is marked with an ellipsis.
+ */
+public class SnippetFormatter extends PassageFormatter {
+    public static final String MATCH_START = "**"; // Marker placed before a match
+    public static final String MATCH_END = "**"; // Marker placed after a match
+    public static final String ELLIPSIS = "..."; // Marker for text cut from the paragraph
+
+    /**
+     * Formats the passages of a paragraph into a snippet.
+     *
+     * @param passages the passages picked by the highlighter, in order of their position
+     * @param content  the text of the paragraph
+     * @return the snippet
+     */
+    @Override
+    public String format(Passage[] passages, String content) {
+        StringBuilder snippet = new StringBuilder();
+        int previousEnd = 0;
+        for (Passage passage : passages) {
+            if (passage.getStartOffset() > previousEnd) {
+                snippet.append(ELLIPSIS);
+            }
+            int position = passage.getStartOffset();
+            int[] starts = passage.getMatchStarts();
+            int[] ends = passage.getMatchEnds();
+            int i = 0;
+            while (i < passage.getNumMatches()) {
+                int start = Math.max(starts[i], position);
+                int end = ends[i];
+                // Merging the following matches that are only separated by spaces or punctuation
+                while (i + 1 < passage.getNumMatches() && isSeparator(content, end, starts[i + 1])) {
+                    end = Math.max(end, ends[++i]);
+                }
+                if (end > start) {
+                    snippet.append(content, position, start)
+                            .append(MATCH_START).append(content, start, end).append(MATCH_END);
+                    position = end;
+                }
+                i++;
+            }
+            snippet.append(content, position, Math.max(position, passage.getEndOffset()));
+            previousEnd = passage.getEndOffset();
+        }
+        if (previousEnd < content.stripTrailing().length()) {
+            snippet.append(ELLIPSIS);
+        }
+        return snippet.toString();
+    }
+
+    /**
+     * Checks if the text between two matches contains no letters or digits.
+     *
+     * @param content the text of the paragraph
+     * @param from    the end of the first match
+     * @param to      the start of the second match
+     * @return true if the matches can share one pair of markers, false otherwise
+     */
+    private static boolean isSeparator(String content, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.isLetterOrDigit(content.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
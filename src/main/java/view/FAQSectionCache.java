@@ -0,0 +1,149 @@
+package view;
+
+import model.FAQItem;
+import model.FAQSection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The FAQSectionCache class keeps the rendered text of FAQ sections so that opening a section that has
+ * not changed is a single lookup instead of formatting every subtopic and item again. Entries are keyed
+ * by the visibility class of the user (guest or authenticated) and the topic path of the section.
+ * An entry holds what its text was rendered from: the items of the section and the topics of its
+ * subsections. Items are immutable and a new list is created whenever an item is added, so the item
+ * lists are compared by reference, while the subsection topics are compared by value. An entry is reused
+ * only if both match, so an edit only invalidates the section whose items or subsections changed, and a
+ * section of a FAQ replaced as a whole, which may have the same topic path and version, is rendered again
+ * unless it would be rendered the same way.
+ * FAQ sections are immutable snapshots shared by every session, so one cache can be shared as well.
+ */
+public class FAQSectionCache {
+    private final Map<String, Entry> entries; // Rendered sections by visibility class and topic path
+    private final LongAdder hits; // Number of lookups answered from the cache
+    private final LongAdder misses; // Number of lookups that rendered the section
+
+    /**
+     * Constructs a new, empty FAQSectionCache.
+     */
+    public FAQSectionCache() {
+        this.entries = new ConcurrentHashMap<>();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * Creates the cache key for a section and a visibility class. Topics are entered on a single line,
+     * so a line break cannot appear in a topic and separates the topics of the path.
+     *
+     * @param section the FAQ section
+     * @param guest   whether the section is displayed to a guest
+     * @return the cache key
+     */
+    public static String key(FAQSection section, boolean guest) {
+        return (guest ? "guest:" : "authenticated:") + String.join("\n", section.getTopicPath());
+    }
+
+    /**
+     * Retrieves the rendered text of a section, rendering it if it is not cached or was rendered from
+     * other items or subsection topics.
+     *
+     * @param section  the FAQ section
+     * @param guest    whether the section is displayed to a guest
+     * @param renderer renders the text of the section
+     * @return the rendered text of the section
+     */
+    public String get(FAQSection section, boolean guest, Function<FAQSection, String> renderer) {
+        String key = key(section, guest);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.items == section.getItems() && entry.hasSubtopicsOf(section)) {
+            hits.increment();
+            return entry.text;
+        }
+        misses.increment();
+        String text = renderer.apply(section);
+        entries.put(key, new Entry(section, text));
+        return text;
+    }
+
+    /**
+     * Removes every rendered section from the cache.
+     */
+    public void invalidate() {
+        entries.clear();
+    }
+
+    /**
+     * Retrieves the number of cached sections.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Retrieves the number of lookups answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Retrieves the number of lookups that had to render the section.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * The rendered text of a section together with the items and subsection topics it was rendered from.
+     */
+    private static class Entry {
+        private final List<FAQItem> items; // The items of the section when it was rendered
+        private final List<String> subtopics; // The topics of the subsections when it was rendered
+        private final String text; // The rendered text of the section
+
+        /**
+         * Constructs a new cache entry.
+         *
+         * @param section the section the text was rendered from
+         * @param text    the rendered text of the section
+         */
+        private Entry(FAQSection section, String text) {
+            this.items = section.getItems();
+            this.subtopics = new ArrayList<>();
+            for (FAQSection subsection : section.getSubsections()) {
+                subtopics.add(subsection.getTopic());
+            }
+            this.text = text;
+        }
+
+        /**
+         * Checks whether a section has the same subsection topics, in the same order, as the rendered one.
+         *
+         * @param section the section to check
+         * @return true if the subsection topics match
+         */
+        private boolean hasSubtopicsOf(FAQSection section) {
+            List<FAQSection> subsections = section.getSubsections();
+            if (subsections.size() != subtopics.size()) {
+                return false;
+            }
+            for (int i = 0; i < subtopics.size(); i++) {
+                if (!subtopics.get(i).equals(subsections.get(i).getTopic())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
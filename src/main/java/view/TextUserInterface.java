@@ -12,6 +12,8 @@ import java.util.Scanner;
  * // Color codes from https://stackoverflow.com/questions/4842424/list-of-ansi-color-escape-sequences
  */
 public class TextUserInterface implements View {
+    private static final String DIVIDER = "--------------------------------------------------"; // Line between parts of the output
+    private static final FAQSectionCache SECTION_CACHE = new FAQSectionCache(); // Rendered FAQ sections shared by every session
     private final Scanner scanner; // Scanner to read user input
 
     /**
@@ -110,7 +112,7 @@ public class TextUserInterface implements View {
      */
     @Override
     public void displayDivider() {
-        displayInfo("--------------------------------------------------");
+        displayInfo(DIVIDER);
     }
 
     /**
@@ -131,36 +133,53 @@ public class TextUserInterface implements View {
 
     /**
      * Displays a specific section of a FAQ, including subtopics and items.
+     * The rendered section is cached until the section changes, and written in a single print.
      *
      * @param faqSection the section of the FAQ to display.
      * @param isPrivate  whether or not the section is private.
      */
     @Override
     public void displayFAQSection(FAQSection faqSection, boolean isPrivate) {
+        System.out.print(SECTION_CACHE.get(faqSection, isPrivate, TextUserInterface::renderFAQSection));
+    }
+
+    /**
+     * Renders a section of a FAQ, including subtopics and items, as displayed by
+     * {@link #displayFAQSection(FAQSection, boolean)}.
+     *
+     * @param faqSection the section of the FAQ to render.
+     * @return the rendered section.
+     */
+    private static String renderFAQSection(FAQSection faqSection) {
+        String newLine = System.lineSeparator();
         List<FAQItem> qaPairs = faqSection.getItems();
         List<FAQSection> subSections = faqSection.getSubsections();
+        StringBuilder text = new StringBuilder();
         // Note that the requirement for private FAQs is not present in this implementation.
-        if (faqSection.getParent() != null) {
-            displayInfo(String.format("Topic: %s / %s ", faqSection.getParent().getTopic(), faqSection.getTopic()));
+        List<String> topicPath = faqSection.getTopicPath();
+        if (topicPath.size() > 1) {
+            text.append("Topic: ").append(topicPath.get(topicPath.size() - 2)).append(" / ")
+                    .append(faqSection.getTopic()).append(' ').append(newLine);
         } else {
-            displayInfo(String.format("Topic: %s ",faqSection.getTopic()));
+            text.append("Topic: ").append(faqSection.getTopic()).append(' ').append(newLine);
         }
-        displayDivider();
+        text.append(DIVIDER).append(newLine);
         if (subSections.size() != 0) {
-            System.out.println("Subtopics:");
+            text.append("Subtopics:").append(newLine);
             int i = 0;
             for (FAQSection subsection : subSections) {
-                System.out.println(String.format("[ %d ] ", ++i) + subsection.getTopic());
+                text.append("[ ").append(++i).append(" ] ").append(subsection.getTopic()).append(newLine);
             }
-            displayDivider();
+            text.append(DIVIDER).append(newLine);
         }
-        
-        System.out.println("Questions:");
+
+        text.append("Questions:").append(newLine);
         for (FAQItem item : qaPairs) {
-            System.out.printf("Q: %s\n", item.getQuestion());
-            System.out.printf("A: %s\n\n", item.getAnswer());
+            text.append("Q: ").append(item.getQuestion()).append('\n');
+            text.append("A: ").append(item.getAnswer()).append("\n\n");
         }
-        displayDivider();
+        text.append(DIVIDER).append(newLine);
+        return text.toString();
     }
 
     /**
@@ -187,4 +206,17 @@ public class TextUserInterface implements View {
             System.out.println(result.getFormattedContent());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Displays the results of a FAQ search, showing the topic path, question and answer of each item.
+     *
+     * @param searchResults the collection of matching FAQ items to display.
+     */
+    @Override
+    public void displayFAQSearchResults(Collection<FAQSearchResult> searchResults) {
+        System.out.println("FAQ Search Results:");
+        for (FAQSearchResult result : searchResults) {
+            System.out.println(result.getFormattedContent());
+        }
+    }
+}
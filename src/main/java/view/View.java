@@ -2,6 +2,7 @@ package view;
 
 import model.FAQ;
 import model.FAQSection;
+import model.FAQSearchResult;
 import model.Inquiry;
 import model.PageSearchResult;
 
@@ -105,4 +106,11 @@ public interface View {
      * @param searchResults A collection of {@link PageSearchResult} objects representing the search results.
      */
     void displaySearchResults(Collection<PageSearchResult> searchResults);
+
+    /**
+     * Displays the results of a FAQ search.
+     *
+     * @param searchResults A collection of {@link FAQSearchResult} objects representing the matching FAQ items.
+     */
+    void displayFAQSearchResults(Collection<FAQSearchResult> searchResults);
 }
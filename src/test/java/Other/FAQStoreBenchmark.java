@@ -0,0 +1,87 @@
+package Other;
+
+import model.FAQ;
+import model.FAQSection;
+import model.FAQStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark of opening a FAQ store holding a large FAQ, comparing loading the binary snapshot with
+ * replaying every edit from the change log.
+ */
+public class FAQStoreBenchmark {
+    private static final int SECTIONS = 200; // Number of top-level sections
+    private static final int SUBSECTIONS = 5; // Number of subsections of each top-level section
+    private static final int ITEMS_PER_SUBSECTION = 50; // Number of items of each subsection
+    private static final int LOGGED_EDITS = 2000; // Number of edits replayed from the change log
+    private static final int RUNS = 5; // Number of timed loads of each kind
+
+    /**
+     * Stores a FAQ of 50000 items as a snapshot followed by a log tail, and prints the time to open the store.
+     *
+     * @param tempDir A temporary directory holding the store.
+     * @throws Exception If an error occurs while storing or loading the FAQ.
+     */
+    @Test
+    public void benchmarkLoad(@TempDir Path tempDir) throws Exception {
+        try (FAQStore store = new FAQStore(tempDir, Integer.MAX_VALUE)) {
+            store.writeSnapshot(generateFAQ());
+            for (int i = 0; i < LOGGED_EDITS; i++) {
+                store.logItem(List.of("Section 0", "Subsection 0"), "Logged question " + i, "Logged answer " + i);
+            }
+        }
+        System.out.printf("Snapshot: %d KB, log: %d KB%n", Files.size(tempDir.resolve("faq.snapshot")) / 1024,
+                Files.size(tempDir.resolve("faq.log")) / 1024);
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            int items;
+            try (FAQStore store = new FAQStore(tempDir, Integer.MAX_VALUE)) {
+                items = countItems(store.getRecoveredFaq().getSections());
+            }
+            System.out.printf("Loaded %d items in %.1f ms%n", items, (System.nanoTime() - start) / 1e6);
+        }
+    }
+
+    /**
+     * Generates a FAQ with the configured number of sections, subsections and items.
+     *
+     * @return the generated FAQ
+     */
+    private static FAQ generateFAQ() {
+        List<FAQSection> sections = new ArrayList<>();
+        for (int s = 0; s < SECTIONS; s++) {
+            FAQSection section = new FAQSection("Section " + s);
+            for (int t = 0; t < SUBSECTIONS; t++) {
+                FAQSection subsection = new FAQSection("Subsection " + t);
+                for (int i = 0; i < ITEMS_PER_SUBSECTION; i++) {
+                    subsection = subsection.withItem("How does question " + i + " of section " + s + " work?",
+                            "This is the answer to question " + i + ", explained in a sentence or two.");
+                }
+                section = section.withSubsection(subsection);
+            }
+            sections.add(section);
+        }
+        return new FAQ(sections);
+    }
+
+    /**
+     * Counts the items of the given sections and of their subsections.
+     *
+     * @param sections the sections
+     * @return the number of items
+     */
+    private static int countItems(List<FAQSection> sections) {
+        int items = 0;
+        for (FAQSection section : sections) {
+            items += section.getItems().size() + countItems(section.getSubsections());
+        }
+        return items;
+    }
+}
@@ -0,0 +1,86 @@
+package Other;
+
+import model.Page;
+import model.PageSearch;
+import model.SearchConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stopwatch benchmark of bulk indexing, showing how indexing a generated corpus of pages
+ * scales from one thread to all available cores.
+ */
+public class IndexingBenchmark {
+    private static final int PAGES = 500; // Number of generated pages
+    private static final int PARAGRAPHS_PER_PAGE = 20; // Number of paragraphs in each generated page
+    private static final String[] WORDS = {"exam", "timetable", "course", "lecture", "tutorial", "deadline",
+            "coursework", "library", "student", "informatics", "semester", "enrolment", "feedback", "marks"};
+
+    /**
+     * Indexes the same corpus with 1, 2, 4, ... threads up to the number of cores and prints the time taken.
+     * Every run must index the same paragraphs.
+     *
+     * @param tempDir A temporary directory holding the generated page files.
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    public void benchmarkBulkIndexing(@TempDir Path tempDir) throws Exception {
+        HashMap<String, Page> corpus = generateCorpus(tempDir);
+        int cores = Runtime.getRuntime().availableProcessors();
+        int expectedHits = -1;
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            SearchConfig searchConfig = new SearchConfig();
+            searchConfig.setAsyncStartup(false);
+            searchConfig.setIndexThreads(threads);
+
+            long start = System.nanoTime();
+            try (PageSearch pageSearch = new PageSearch(new HashMap<>(corpus), searchConfig)) {
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                System.out.printf("Indexed %d pages with %d thread(s) in %d ms%n", PAGES, threads, millis);
+
+                int hits = pageSearch.search(pageSearch.compileQuery("exam"), true, Integer.MAX_VALUE - 1)
+                        .getResults().size();
+                if (expectedHits < 0) {
+                    expectedHits = hits;
+                }
+                assertEquals(expectedHits, hits, "Expected every run to index the same paragraphs.");
+            }
+            if (threads == cores) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Writes the page files of the generated corpus.
+     *
+     * @param dir the directory to write the page files to
+     * @return the generated pages by title
+     * @throws IOException if a page file cannot be written
+     */
+    private static HashMap<String, Page> generateCorpus(Path dir) throws IOException {
+        Random random = new Random(42);
+        HashMap<String, Page> corpus = new HashMap<>();
+        for (int i = 0; i < PAGES; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int p = 0; p < PARAGRAPHS_PER_PAGE; p++) {
+                for (int w = 0; w < 60; w++) {
+                    text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                }
+                text.append("\n\n");
+            }
+            Path file = dir.resolve("page" + i + ".txt");
+            Files.writeString(file, text);
+            corpus.put("Page " + i, new Page("Page " + i, file.toString(), i % 2 == 0));
+        }
+        return corpus;
+    }
+}
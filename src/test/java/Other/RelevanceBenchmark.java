@@ -0,0 +1,148 @@
+package Other;
+
+import model.Page;
+import model.PageSearch;
+import model.PageSearchResult;
+import model.SearchConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Offline relevance benchmark comparing scoring settings on a judged query set. Each topic has one
+ * page about it, whose title names the topic, and several pages that only mention the topic, some of
+ * them repeatedly. A query for a topic is judged relevant only for the page about it, and each
+ * setting is scored by the mean reciprocal rank and the precision at one of the collapsed results.
+ */
+public class RelevanceBenchmark {
+    private static final String[] TOPICS = {"exam", "timetable", "coursework", "library", "enrolment", "feedback",
+            "tutorial", "deadline", "laptop", "accommodation", "visa", "graduation"}; // Judged query topics
+    private static final String[] FILLER = {"student", "course", "semester", "office", "school", "university",
+            "please", "contact", "information", "week", "support", "team", "online", "form"}; // Words of no topic
+    private static final int MENTIONS_PER_TOPIC = 8; // Number of pages mentioning each topic without being about it
+    private static final int RESULTS = 10; // Number of results judged per query
+
+    /**
+     * Indexes the judged corpus with several scoring settings and prints the relevance of each.
+     *
+     * @param tempDir A temporary directory holding the generated page files.
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    public void benchmarkRelevance(@TempDir Path tempDir) throws Exception {
+        HashMap<String, Page> corpus = generateCorpus(tempDir);
+        Object[][] settings = {
+                {"bm25", 0.0f, 1.2f, 0.75f},
+                {"bm25", 0.5f, 1.2f, 0.75f},
+                {"bm25", 1.0f, 1.2f, 0.75f},
+                {"bm25", 2.0f, 1.2f, 0.75f},
+                {"bm25", 4.0f, 1.2f, 0.75f},
+                {"bm25", 2.0f, 0.9f, 0.4f},
+                {"classic", 0.0f, 1.2f, 0.75f},
+                {"classic", 1.0f, 1.2f, 0.75f},
+                {"classic", 2.0f, 1.2f, 0.75f},
+        };
+        for (Object[] setting : settings) {
+            SearchConfig searchConfig = new SearchConfig();
+            searchConfig.setAsyncStartup(false);
+            searchConfig.setSimilarity((String) setting[0]);
+            searchConfig.setTitleBoost((Float) setting[1]);
+            searchConfig.setBm25K1((Float) setting[2]);
+            searchConfig.setBm25B((Float) setting[3]);
+            try (PageSearch pageSearch = new PageSearch(new HashMap<>(corpus), searchConfig)) {
+                double reciprocalRanks = 0;
+                int hitsAtOne = 0;
+                for (String topic : TOPICS) {
+                    int rank = rankOf(pageSearch, topic, titleOf(topic));
+                    reciprocalRanks += rank > 0 ? 1.0 / rank : 0;
+                    hitsAtOne += rank == 1 ? 1 : 0;
+                }
+                System.out.printf("%s, title boost %.1f, k1 %.1f, b %.2f: MRR %.3f, P@1 %.3f%n", setting[0], setting[1],
+                        setting[2], setting[3], reciprocalRanks / TOPICS.length, (double) hitsAtOne / TOPICS.length);
+            }
+        }
+    }
+
+    /**
+     * Finds the rank of the relevant page in the collapsed results of a query.
+     *
+     * @param pageSearch the index to search
+     * @param query      the query string
+     * @param relevant   the title of the page judged relevant
+     * @return the rank of the page, starting at 1, or 0 if it is not among the judged results
+     * @throws Exception if an error occurs during searching
+     */
+    private static int rankOf(PageSearch pageSearch, String query, String relevant) throws Exception {
+        List<PageSearchResult> results = pageSearch.searchCollapsed(pageSearch.compileQuery(query), true, RESULTS)
+                .getResults();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).getTitle().equals(relevant)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Builds the title of the page about a topic.
+     *
+     * @param topic the topic
+     * @return the title of the page
+     */
+    private static String titleOf(String topic) {
+        return Character.toUpperCase(topic.charAt(0)) + topic.substring(1) + " Guide";
+    }
+
+    /**
+     * Writes the page about each topic, which names it once in a long paragraph, and the pages that
+     * mention it, which name it one to three times in short paragraphs.
+     *
+     * @param directory the directory to write the page files into
+     * @return the generated pages by title
+     * @throws Exception if a page file cannot be written
+     */
+    private static HashMap<String, Page> generateCorpus(Path directory) throws Exception {
+        Files.createDirectories(directory);
+        Random random = new Random(7);
+        HashMap<String, Page> pages = new HashMap<>();
+        for (String topic : TOPICS) {
+            String title = titleOf(topic);
+            Path file = directory.resolve(topic + ".txt");
+            Files.writeString(file, sentence(random, topic, 1, 60) + "\n\n" + sentence(random, null, 0, 40));
+            pages.put(title, new Page(title, file.toString(), false));
+
+            for (int i = 0; i < MENTIONS_PER_TOPIC; i++) {
+                String mentionTitle = "Newsletter " + pages.size();
+                Path mentionFile = directory.resolve(topic + "-mention" + i + ".txt");
+                Files.writeString(mentionFile, sentence(random, topic, 1 + random.nextInt(3), 15));
+                pages.put(mentionTitle, new Page(mentionTitle, mentionFile.toString(), false));
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Generates a paragraph of filler words naming a topic a given number of times.
+     *
+     * @param random   the source of the filler words
+     * @param topic    the topic to name, or null for none
+     * @param mentions the number of times the topic is named
+     * @param length   the number of filler words
+     * @return the paragraph
+     */
+    private static String sentence(Random random, String topic, int mentions, int length) {
+        StringBuilder paragraph = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            paragraph.append(FILLER[random.nextInt(FILLER.length)]).append(' ');
+            if (topic != null && i % Math.max(1, length / mentions) == 0 && i / Math.max(1, length / mentions) < mentions) {
+                paragraph.append(topic).append(' ');
+            }
+        }
+        return paragraph.toString().trim() + ".";
+    }
+}
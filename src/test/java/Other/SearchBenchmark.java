@@ -0,0 +1,110 @@
+package Other;
+
+import model.Page;
+import model.PageSearch;
+import model.SearchConfig;
+import org.apache.lucene.search.Query;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Stopwatch benchmark of search latency, comparing searching the segments of a query on the calling
+ * thread with searching segment slices in parallel, for corpora of increasing size.
+ */
+public class SearchBenchmark {
+    private static final int[] CORPUS_SIZES = {250, 1000, 4000}; // Numbers of generated pages
+    private static final int PARAGRAPHS_PER_PAGE = 10; // Number of paragraphs in each generated page
+    private static final int QUERIES = 200; // Number of timed queries per run
+    private static final String[] WORDS = {"exam", "timetable", "course", "lecture", "tutorial", "deadline",
+            "coursework", "library", "student", "informatics", "semester", "enrolment", "feedback", "marks"};
+    private static final String[] QUERY_STRINGS = {"exam timetable", "\"course deadline\"", "library OR feedback",
+            "lect*", "student AND marks"};
+
+    /**
+     * Searches each corpus with segment slices searched sequentially and in parallel, and prints the
+     * median and 99th percentile latency of each run.
+     *
+     * @param tempDir A temporary directory holding the generated page files.
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    public void benchmarkSearchLatency(@TempDir Path tempDir) throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int size : CORPUS_SIZES) {
+            HashMap<String, Page> corpus = generateCorpus(tempDir.resolve("corpus" + size), size);
+            for (int threads : new int[]{0, cores}) {
+                SearchConfig searchConfig = new SearchConfig();
+                searchConfig.setAsyncStartup(false);
+                searchConfig.setSearchThreads(threads);
+                searchConfig.setSliceMaxDocs(size * PARAGRAPHS_PER_PAGE / Math.max(1, cores));
+                searchConfig.setCacheSize(0); // Every query must reach the index
+                searchConfig.setRamBufferMB(1); // Small buffers leave the index with many segments
+                try (PageSearch pageSearch = new PageSearch(new HashMap<>(corpus), searchConfig)) {
+                    long[] latencies = timeQueries(pageSearch);
+                    System.out.printf("%d pages, %d search thread(s): median %d us, p99 %d us%n", size, threads,
+                            latencies[latencies.length / 2], latencies[latencies.length * 99 / 100]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the benchmark queries after a warm-up and measures the latency of each.
+     *
+     * @param pageSearch the index to search
+     * @return the sorted latencies in microseconds
+     * @throws Exception if an error occurs during searching
+     */
+    private static long[] timeQueries(PageSearch pageSearch) throws Exception {
+        Query[] queries = new Query[QUERY_STRINGS.length];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = pageSearch.compileQuery(QUERY_STRINGS[i]);
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            pageSearch.search(queries[i % queries.length], true, 10);
+        }
+
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long start = System.nanoTime();
+            pageSearch.search(queries[i % queries.length], true, 10);
+            latencies[i] = (System.nanoTime() - start) / 1000;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    /**
+     * Writes the page files of a generated corpus.
+     *
+     * @param dir   the directory to write the page files to
+     * @param pages the number of pages to generate
+     * @return the generated pages by title
+     * @throws IOException if a page file cannot be written
+     */
+    private static HashMap<String, Page> generateCorpus(Path dir, int pages) throws IOException {
+        Files.createDirectories(dir);
+        Random random = new Random(42);
+        HashMap<String, Page> corpus = new HashMap<>();
+        for (int i = 0; i < pages; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int p = 0; p < PARAGRAPHS_PER_PAGE; p++) {
+                for (int w = 0; w < 60; w++) {
+                    text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                }
+                text.append("\n\n");
+            }
+            Path file = dir.resolve("page" + i + ".txt");
+            Files.writeString(file, text);
+            corpus.put("Page " + i, new Page("Page " + i, file.toString(), false));
+        }
+        return corpus;
+    }
+}
@@ -53,6 +53,22 @@ class ConsultWebpagesSystemTests {
         Assertions.assertTrue(testHelper.getOutContent().toString().contains("No results found for query: " + searchQuery));
     }
 
+    /**
+     * Tests that a misspelled query that finds nothing is followed by a spelling suggestion.
+     */
+    @Test
+    void testMisspelledQuerySuggestion() {
+        // Search for pages
+        String searchQuery = "astr";
+        testHelper.mockInputOutput(searchQuery + "\n");
+        testHelper.getInquirerController().searchPages();
+
+        // Verify that the corrected query is suggested
+        String output = testHelper.getOutContent().toString();
+        Assertions.assertTrue(output.contains("No results found for query: " + searchQuery));
+        Assertions.assertTrue(output.contains("Did you mean: astra?"));
+    }
+
     /**
      * Tests for a query present in a private page, but the user is a guest.
      */
@@ -72,6 +88,9 @@ class ConsultWebpagesSystemTests {
 
         // Blog is a private page, so it should not be displayed
         Assertions.assertFalse(testHelper.getOutContent().toString().contains("Blog"));
+
+        // Blog should still be registered for logged in users
+        Assertions.assertTrue(testHelper.getSharedContext().getPages().containsKey("Blog"));
     }
 
     /**
@@ -95,6 +114,56 @@ class ConsultWebpagesSystemTests {
         Assertions.assertTrue(testHelper.getOutContent().toString().contains("Blog"));
     }
 
+    /**
+     * Tests showing the next page of results for a query matching more than four pages.
+     */
+    @Test
+    void testShowMoreResults() {
+        // Use a separate environment with copies of the pages, so that six pages match without affecting other tests
+        TestHelper helper = new TestHelper();
+        helper.setUpPages();
+        helper.setUpLoggedInAdminStaff();
+        for (int i = 1; i <= 3; i++) {
+            String content = getClass().getResource("/examplePage" + i + ".txt").getPath();
+            helper.mockInputOutput("Copy " + i + "\n" + content + "\nno\n");
+            helper.getAdminStaffController().addPage();
+        }
+
+        // Log in as a student so that all pages are searched
+        helper.getAuthenticatedUserController().logout();
+        helper.setUpLoggedInStudent();
+
+        // Search for pages and show the second page
+        String searchQuery = "paragraph";
+        helper.mockInputOutput(searchQuery + "\n" + "yes" + "\n");
+        helper.getInquirerController().searchPages();
+
+        // Verify that the results were displayed in two pages, and the last page offered no more results
+        String output = helper.getOutContent().toString();
+        Assertions.assertEquals(2, output.split("Search Results:", -1).length - 1);
+        Assertions.assertEquals(1, output.split("Show more results\\?", -1).length - 1);
+        helper.cleanUpEnvironment();
+    }
+
+    /**
+     * Tests that only the best paragraph of each page is shown, with the number of other matching paragraphs.
+     */
+    @Test
+    void testResultsCollapsedPerPage() {
+        // Log in as a student so that all three pages are searched
+        testHelper.setUpLoggedInStudent();
+
+        String searchQuery = "paragraph";
+        testHelper.mockInputOutput(searchQuery + "\n");
+        testHelper.getInquirerController().searchPages();
+
+        // Each page has two or three matching paragraphs, so three results are shown on one page
+        String output = testHelper.getOutContent().toString();
+        Assertions.assertEquals(3, output.split("Title: ", -1).length - 1);
+        Assertions.assertTrue(output.contains("more match"));
+        Assertions.assertFalse(output.contains("Show more results?"));
+    }
+
     /**
      * Tests for an empty query.
      */
@@ -0,0 +1,118 @@
+package SystemTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * System tests for the import pages use case.
+ */
+class ImportPagesSystemTests {
+    private final TestHelper testHelper = new TestHelper(); // SystemTests.TestHelper class is used to set up the testing environment
+
+    /**
+     * Sets up the testing environment before each test by logging in as an admin staff member.
+     */
+    @BeforeEach
+    void setUp() {
+        testHelper.setUpLoggedInAdminStaff();
+    }
+
+    /**
+     * Cleans up the testing environment after each test.
+     */
+    @AfterEach
+    void cleanUp() {
+        testHelper.cleanUpEnvironment();
+    }
+
+    /**
+     * Copies an example page from the test resources.
+     *
+     * @param name   the name of the example page file
+     * @param target the file to copy it to
+     * @throws Exception If the page cannot be copied.
+     */
+    private void copyExamplePage(String name, Path target) throws Exception {
+        Files.createDirectories(target.getParent());
+        Files.copy(Paths.get(getClass().getResource("/" + name).toURI()), target);
+    }
+
+    /**
+     * Tests importing a directory tree of pages, which registers every page and sends a single email.
+     *
+     * @param tempDir A temporary directory holding the pages to import.
+     * @throws Exception If the pages cannot be prepared.
+     */
+    @Test
+    void testImportDirectory(@TempDir Path tempDir) throws Exception {
+        copyExamplePage("examplePage1.txt", tempDir.resolve("article.txt"));
+        copyExamplePage("examplePage2.txt", tempDir.resolve("week1/webpage.txt"));
+        copyExamplePage("examplePage3.txt", tempDir.resolve("week1/blog.txt"));
+
+        testHelper.mockInputOutput(tempDir + "\nyes\n");
+        testHelper.getAdminStaffController().importPages();
+
+        Assertions.assertTrue(testHelper.getSharedContext().getPages().containsKey("article"));
+        Assertions.assertTrue(testHelper.getSharedContext().getPages().containsKey("week1/webpage"));
+        Assertions.assertTrue(testHelper.getSharedContext().getPages().get("week1/blog").isPrivate());
+        Assertions.assertEquals(1, testHelper.getSharedContext().getPageSearch().search("\"dog, cat, bird\"").size());
+
+        String output = testHelper.getOutContent().toString();
+        Assertions.assertTrue(output.contains("Imported 3 pages"));
+        Assertions.assertEquals(1, output.split("Email from", -1).length - 1, "Expected a single summary email.");
+    }
+
+    /**
+     * Tests importing a manifest, where entries with a missing file are skipped and reported.
+     *
+     * @param tempDir A temporary directory holding the manifest and the pages to import.
+     * @throws Exception If the manifest cannot be prepared.
+     */
+    @Test
+    void testImportManifest(@TempDir Path tempDir) throws Exception {
+        copyExamplePage("examplePage1.txt", tempDir.resolve("pages/article.txt"));
+        Path manifest = tempDir.resolve("manifest.json");
+        Files.writeString(manifest, "[{\"title\": \"Article\", \"path\": \"pages/article.txt\", \"private\": true},"
+                + " {\"title\": \"Missing\", \"path\": \"pages/missing.txt\"}]");
+
+        testHelper.mockInputOutput(manifest + "\n");
+        testHelper.getAdminStaffController().importPages();
+
+        Assertions.assertTrue(testHelper.getSharedContext().getPages().get("Article").isPrivate());
+        Assertions.assertFalse(testHelper.getSharedContext().getPages().containsKey("Missing"));
+        String output = testHelper.getOutContent().toString();
+        Assertions.assertTrue(output.contains("Skipped Missing"));
+        Assertions.assertTrue(output.contains("Imported 1 pages"));
+    }
+
+    /**
+     * Tests that pages which already exist are kept when the admin staff member declines to overwrite them.
+     *
+     * @param tempDir A temporary directory holding the pages to import.
+     * @throws Exception If the pages cannot be prepared.
+     */
+    @Test
+    void testImportWithoutOverwrite(@TempDir Path tempDir) throws Exception {
+        testHelper.setUpPages();
+        testHelper.setUpLoggedInAdminStaff();
+        String existingPath = testHelper.getSharedContext().getPages().get("Article").getContent();
+        copyExamplePage("examplePage2.txt", tempDir.resolve("Article.txt"));
+        copyExamplePage("examplePage2.txt", tempDir.resolve("New.txt"));
+
+        // Public pages, and do not overwrite the existing page
+        testHelper.mockInputOutput(tempDir + "\nno\nno\n");
+        testHelper.getAdminStaffController().importPages();
+
+        Assertions.assertEquals(existingPath, testHelper.getSharedContext().getPages().get("Article").getContent());
+        Assertions.assertTrue(testHelper.getSharedContext().getPages().containsKey("New"));
+        Assertions.assertTrue(testHelper.getOutContent().toString().contains("Imported 1 pages"));
+    }
+}
@@ -0,0 +1,61 @@
+package SystemTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * System tests for the search FAQ use case.
+ */
+class SearchFAQSystemTests {
+    private final TestHelper testHelper = new TestHelper(); // SystemTests.TestHelper class is used to set up the testing environment
+
+    /**
+     * Sets up the FAQ section Topic1 with the Q&A pair q_1.1 and a_1.1, and its subsection Subtopic1.1
+     * with the Q&A pair about library opening hours, added by an admin staff member.
+     */
+    @BeforeEach
+    void setUp() {
+        testHelper.setUpLoggedInAdminStaff();
+        testHelper.mockInputOutput("-2\nTopic1\nq_1.1\na_1.1\n1\n-2\nyes\nSubtopic1.1\n"
+                + "When does the library open?\nThe library opens at 9am.\n-1\n-1\n");
+        testHelper.getAdminStaffController().manageFAQ();
+        testHelper.setUpGuest();
+    }
+
+    /**
+     * Cleans up the testing environment after each test.
+     */
+    @AfterEach
+    void cleanUp() {
+        testHelper.cleanUpEnvironment();
+    }
+
+    /**
+     * Tests that an item added by the admin staff is found with one query, with the topic path of its section.
+     */
+    @Test
+    void testSearchAddedItem() {
+        testHelper.mockInputOutput("library opening\n");
+        testHelper.getInquirerController().searchFAQ();
+
+        String output = testHelper.getOutContent().toString();
+        Assertions.assertTrue(output.contains("Topic: Topic1 / Subtopic1.1"));
+        Assertions.assertTrue(output.contains("A: The library opens at 9am."));
+    }
+
+    /**
+     * Tests for a query matching no FAQ item, after an empty and an invalid query.
+     */
+    @Test
+    void testNoMatch() {
+        testHelper.mockInputOutput("\ntitle:(One Two OR AND text:\nSuperman\n");
+        testHelper.getInquirerController().searchFAQ();
+
+        String output = testHelper.getOutContent().toString();
+        Assertions.assertTrue(output.contains("Search query cannot be empty."));
+        Assertions.assertTrue(output.contains("Invalid search query. Please try again."));
+        Assertions.assertTrue(output.contains("No FAQ items found for query: Superman"));
+    }
+}
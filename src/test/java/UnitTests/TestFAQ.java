@@ -0,0 +1,76 @@
+package UnitTests;
+
+import model.FAQ;
+import model.FAQSection;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test suite for the {@link FAQ} class, focusing on the topic path index of its sections and on
+ * building new snapshots without changing the old ones.
+ */
+public class TestFAQ {
+
+    /**
+     * Tests that sections added at any depth, including subsections of an added section, are found by their path.
+     */
+    @Test
+    void testLookupByPath() {
+        FAQ faq = new FAQ().withSection(null, new FAQSection("Exams").withSubsection(new FAQSection("Resits")));
+        FAQSection exams = faq.getSection(List.of("Exams"));
+        FAQSection resits = faq.getSubsection(exams, "Resits");
+        faq = faq.withSection(resits, new FAQSection("Fees"));
+
+        FAQSection fees = faq.getSection(List.of("Exams", "Resits", "Fees"));
+        assertEquals(List.of("Exams", "Resits", "Fees"), fees.getTopicPath());
+        assertSame(faq.getSection(List.of("Exams", "Resits")), faq.getParent(fees));
+        assertNull(faq.getParent(faq.getSection(List.of("Exams"))));
+        assertNull(faq.getSection(List.of("Resits")), "Expected sections to be indexed by their full path.");
+    }
+
+    /**
+     * Tests that a duplicate topic under the same parent is rejected, while the same topic under another parent is not.
+     */
+    @Test
+    void testDuplicateTopicRejected() {
+        FAQ faq = new FAQ().withSection(null, new FAQSection("Exams"));
+        FAQSection exams = faq.getSection(List.of("Exams"));
+        faq = faq.withSection(exams, new FAQSection("Fees")).withSection(null, new FAQSection("Fees"));
+        FAQ built = faq;
+
+        assertThrows(IllegalArgumentException.class, () -> built.withSection(exams, new FAQSection("Fees")));
+        assertThrows(IllegalArgumentException.class, () -> built.withSection(null, new FAQSection("Exams")));
+        assertEquals(1, faq.getSection(List.of("Exams")).getSubsections().size());
+        assertEquals(2, faq.getSections().size());
+    }
+
+    /**
+     * Tests that adding an item builds a new snapshot that shares the unchanged sections, leaves the old
+     * snapshot as it was, and only increments the version of the changed section.
+     */
+    @Test
+    void testCopyOnWrite() {
+        FAQ before = new FAQ(List.of(
+                new FAQSection("Exams").withSubsection(new FAQSection("Resits")).withSubsection(new FAQSection("Dates")),
+                new FAQSection("Fees")));
+        FAQSection resits = before.getSection(List.of("Exams", "Resits"));
+        FAQ after = before.withItem(resits, "Can I resit?", "Yes, in August.");
+
+        assertTrue(before.getSection(List.of("Exams", "Resits")).getItems().isEmpty());
+        assertEquals(1, after.getSection(List.of("Exams", "Resits")).getItems().size());
+        assertEquals(resits.getVersion() + 1, after.getSection(List.of("Exams", "Resits")).getVersion());
+        assertEquals(before.getSection(List.of("Exams")).getVersion(), after.getSection(List.of("Exams")).getVersion());
+        assertSame(before.getSection(List.of("Exams", "Dates")), after.getSection(List.of("Exams", "Dates")));
+        assertSame(before.getSection(List.of("Fees")), after.getSection(List.of("Fees")));
+        assertSame(after.getSection(List.of("Exams", "Resits")), after.getSection(List.of("Exams")).getSubsections().get(0));
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertThrows(UnsupportedOperationException.class, () -> after.getSections().clear());
+    }
+}
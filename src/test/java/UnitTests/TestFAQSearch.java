@@ -0,0 +1,88 @@
+package UnitTests;
+
+import model.FAQ;
+import model.FAQSearch;
+import model.FAQSearchResult;
+import model.FAQSection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test suite for the {@link FAQSearch} class, focusing on indexing the FAQ tree and searching its items.
+ */
+public class TestFAQSearch {
+    private FAQ faq; // The FAQ indexed by the search
+    private FAQSection resits; // A subsection of the Exams section
+    private FAQSearch faqSearch; // The FAQSearch instance to be tested
+
+    /**
+     * Sets up a FAQ with an Exams section holding a Resits subsection, and a private Staff section.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        FAQSection exams = new FAQSection("Exams")
+                .withItem("When are the exams?", "The exam timetable is published in March.")
+                .withSubsection(new FAQSection("Resits").withItem("Can I resit an exam?", "Resits take place in August."));
+        FAQSection staff = new FAQSection("Staff", true)
+                .withItem("Where is the staff room?", "The staff room is on the second floor.");
+        faq = new FAQ(List.of(exams, staff));
+        resits = faq.getSection(List.of("Exams", "Resits"));
+        faqSearch = new FAQSearch(faq);
+    }
+
+    /**
+     * Closes the {@link FAQSearch} instance after each test method.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        faqSearch.close();
+    }
+
+    /**
+     * Tests that items of subsections are found with the topic path of their section, best match first.
+     *
+     * @throws Exception If an error occurs during the search operation.
+     */
+    @Test
+    void testSearchFindsNestedItems() throws Exception {
+        List<FAQSearchResult> results = faqSearch.search(faqSearch.compileQuery("resit exam"), true, 5);
+        assertEquals(2, results.size());
+        assertEquals("Can I resit an exam?", results.get(0).getQuestion());
+        assertEquals("Exams / Resits", results.get(0).getTopicPath());
+        assertTrue(results.get(0).getFormattedContent().contains("A: Resits take place in August."));
+    }
+
+    /**
+     * Tests that items of private sections are only returned when private items are included.
+     *
+     * @throws Exception If an error occurs during the search operation.
+     */
+    @Test
+    void testPrivateItemsFiltered() throws Exception {
+        assertEquals(0, faqSearch.search(faqSearch.compileQuery("staff room"), false, 5).size());
+        assertEquals(1, faqSearch.search(faqSearch.compileQuery("staff room"), true, 5).size());
+    }
+
+    /**
+     * Tests that an added item is found by the next search, and that rebuilding over a new FAQ drops the old items.
+     *
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testIncrementalAddAndRebuild() throws Exception {
+        faq = faq.withItem(resits, "How much does a resit cost?", "Resits are free of charge.");
+        resits = faq.getSection(resits.getTopicPath());
+        faqSearch.addItem(faq, resits, resits.getItems().get(1));
+        assertEquals(1, faqSearch.search(faqSearch.compileQuery("charge"), false, 5).size());
+
+        faqSearch.rebuild(new FAQ());
+        assertEquals(0, faqSearch.search(faqSearch.compileQuery("exam"), true, 5).size());
+    }
+}
@@ -0,0 +1,62 @@
+package UnitTests;
+
+import model.FAQ;
+import model.FAQSection;
+import org.junit.jupiter.api.Test;
+import view.FAQSectionCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Test suite for the {@link FAQSectionCache} class, focusing on when a rendered section is reused.
+ */
+public class TestFAQSectionCache {
+
+    /**
+     * Tests that a rendered section is reused until its own items change, and that an edit to a subsection
+     * does not invalidate its parent. Guests and authenticated users get separate entries.
+     */
+    @Test
+    void testInvalidatedOnlyByChangedSection() {
+        FAQSectionCache cache = new FAQSectionCache();
+        FAQ faq = new FAQ(List.of(new FAQSection("Exams").withSubsection(new FAQSection("Resits"))));
+        FAQSection exams = faq.getSection(List.of("Exams"));
+
+        assertEquals("Exams 0", cache.get(exams, true, section -> section.getTopic() + " " + section.getItems().size()));
+        assertEquals("Exams 0", cache.get(exams, true, section -> "rendered again"));
+        assertEquals("authenticated", cache.get(exams, false, section -> "authenticated"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        faq = faq.withItem(faq.getSection(List.of("Exams", "Resits")), "Can I resit?", "Yes.");
+        assertEquals("Exams 0", cache.get(faq.getSection(List.of("Exams")), true, section -> "rendered again"));
+
+        faq = faq.withItem(faq.getSection(List.of("Exams")), "When are exams?", "In May.");
+        assertEquals("Exams 1", cache.get(faq.getSection(List.of("Exams")), true,
+                section -> section.getTopic() + " " + section.getItems().size()));
+        assertEquals(2, cache.size());
+    }
+
+    /**
+     * Tests that a section of a FAQ replaced as a whole is rendered again, even with the same path and version,
+     * including a section without items, whose empty item list is shared by every such section.
+     */
+    @Test
+    void testReplacedFAQNotReused() {
+        FAQSectionCache cache = new FAQSectionCache();
+        FAQSection first = new FAQSection("Exams").withItem("When are exams?", "In May.");
+        FAQSection second = new FAQSection("Exams").withItem("Where are exams?", "In the main hall.");
+
+        assertEquals("When are exams?", cache.get(first, false, section -> section.getItems().get(0).getQuestion()));
+        assertEquals("Where are exams?", cache.get(second, false, section -> section.getItems().get(0).getQuestion()));
+
+        FAQ firstFaq = new FAQ(List.of(new FAQSection("T").withSubsection(new FAQSection("X"))));
+        FAQ secondFaq = new FAQ(List.of(new FAQSection("T").withSubsection(new FAQSection("Y"))));
+        assertEquals("X", cache.get(firstFaq.getSection(List.of("T")), false,
+                section -> section.getSubsections().get(0).getTopic()));
+        assertEquals("Y", cache.get(secondFaq.getSection(List.of("T")), false,
+                section -> section.getSubsections().get(0).getTopic()));
+    }
+}
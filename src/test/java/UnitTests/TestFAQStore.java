@@ -0,0 +1,143 @@
+package UnitTests;
+
+import model.FAQ;
+import model.FAQSection;
+import model.FAQStore;
+import model.FAQStoreConfig;
+import model.SearchConfig;
+import model.SharedContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test suite for the {@link FAQStore} class, focusing on recovering the FAQ from the snapshot and the
+ * change log after a restart, including after a crash.
+ */
+public class TestFAQStore {
+
+    /**
+     * Tests that edits made through the shared context are restored by a new shared context using the same store.
+     *
+     * @param tempDir A temporary directory holding the store.
+     * @throws Exception If an error occurs while storing or loading the FAQ.
+     */
+    @Test
+    void testRestoredAfterRestart(@TempDir Path tempDir) throws Exception {
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setAsyncStartup(false);
+        FAQStoreConfig faqStoreConfig = new FAQStoreConfig();
+        faqStoreConfig.setStorePath(tempDir.toString());
+        SharedContext sharedContext = new SharedContext(searchConfig, faqStoreConfig);
+        FAQSection exams = sharedContext.addFAQSection(null, "Exams");
+        FAQSection resits = sharedContext.addFAQSection(exams, "Resits");
+        sharedContext.addFAQItem(resits, "Can I resit an exam?", "Resits take place in August.");
+        sharedContext.addFAQItem(exams, "When are the exams?", "In May.");
+        sharedContext.close();
+
+        SharedContext restarted = new SharedContext(searchConfig, faqStoreConfig);
+        FAQ faq = restarted.getFaq();
+        assertEquals(1, faq.getSections().size());
+        assertEquals("In May.", faq.getSection(List.of("Exams")).getItems().get(0).getAnswer());
+        assertEquals("Can I resit an exam?", faq.getSection(List.of("Exams", "Resits")).getItems().get(0).getQuestion());
+        assertEquals(1, restarted.getFaqSearch().search(restarted.getFaqSearch().compileQuery("August"), false, 5).size());
+        assertEquals(4, restarted.getFaqStore().getSequence());
+        restarted.close();
+    }
+
+    /**
+     * Tests that a snapshot is written once enough edits are logged, that the log is cleared, and that
+     * edits logged after the snapshot are replayed on top of it.
+     *
+     * @param tempDir A temporary directory holding the store.
+     * @throws Exception If an error occurs while storing or loading the FAQ.
+     */
+    @Test
+    void testCompaction(@TempDir Path tempDir) throws Exception {
+        FAQ faq = new FAQ();
+        try (FAQStore store = new FAQStore(tempDir, 3)) {
+            faq = faq.withSection(null, new FAQSection("Exams"));
+            store.logSection(List.of(), "Exams", false);
+            for (int i = 0; i < 3; i++) {
+                faq = faq.withItem(faq.getSection(List.of("Exams")), "Question " + i, "Answer " + i);
+                store.logItem(List.of("Exams"), "Question " + i, "Answer " + i);
+                store.compactIfDue(faq);
+            }
+            assertEquals(1, store.getEditsSinceSnapshot());
+            assertTrue(Files.exists(tempDir.resolve("faq.snapshot")));
+        }
+
+        try (FAQStore store = new FAQStore(tempDir, 3)) {
+            FAQSection exams = store.getRecoveredFaq().getSection(List.of("Exams"));
+            assertEquals(3, exams.getItems().size());
+            assertEquals("Answer 2", exams.getItems().get(2).getAnswer());
+            assertEquals(4, store.getSequence());
+            assertEquals(1, store.getEditsSinceSnapshot());
+        }
+    }
+
+    /**
+     * Tests that edits already held by the snapshot are not applied again when the log was not cleared,
+     * as after a crash between writing the snapshot and clearing the log.
+     *
+     * @param tempDir A temporary directory holding the store.
+     * @throws Exception If an error occurs while storing or loading the FAQ.
+     */
+    @Test
+    void testSnapshotSkipsLoggedEdits(@TempDir Path tempDir) throws Exception {
+        Path logCopy = tempDir.resolve("log.copy");
+        try (FAQStore store = new FAQStore(tempDir, 1000)) {
+            store.logSection(List.of(), "Exams", false);
+            store.logItem(List.of("Exams"), "When are the exams?", "In May.");
+            Files.copy(tempDir.resolve("faq.log"), logCopy);
+            store.writeSnapshot(new FAQ(List.of(new FAQSection("Exams").withItem("When are the exams?", "In May."))));
+        }
+        Files.copy(logCopy, tempDir.resolve("faq.log"), StandardCopyOption.REPLACE_EXISTING);
+
+        try (FAQStore store = new FAQStore(tempDir, 1000)) {
+            assertEquals(1, store.getRecoveredFaq().getSection(List.of("Exams")).getItems().size());
+            assertEquals(0, store.getEditsSinceSnapshot());
+        }
+    }
+
+    /**
+     * Tests that a record torn by a crash at the end of the log is cut off, and that later edits are
+     * appended after the last complete record.
+     *
+     * @param tempDir A temporary directory holding the store.
+     * @throws Exception If an error occurs while storing or loading the FAQ.
+     */
+    @Test
+    void testTornRecordCutOff(@TempDir Path tempDir) throws Exception {
+        try (FAQStore store = new FAQStore(tempDir, 1000)) {
+            store.logSection(List.of(), "Exams", false);
+            store.logItem(List.of("Exams"), "When are the exams?", "In May.");
+        }
+        Path logPath = tempDir.resolve("faq.log");
+        long completeSize = Files.size(logPath);
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 40, 1, 2, 3}));
+        }
+
+        try (FAQStore store = new FAQStore(tempDir, 1000)) {
+            assertEquals(1, store.getRecoveredFaq().getSection(List.of("Exams")).getItems().size());
+            assertEquals(completeSize, Files.size(logPath));
+            store.logSection(List.of(), "Fees", false);
+        }
+        try (FAQStore store = new FAQStore(tempDir, 1000)) {
+            assertEquals(2, store.getRecoveredFaq().getSections().size());
+            assertNull(store.getRecoveredFaq().getSection(List.of("Exams", "Fees")));
+        }
+    }
+}
@@ -1,17 +1,38 @@
 package UnitTests;
 
 import model.Page;
+import model.PageIndexingException;
 import model.PageSearch;
 import model.PageSearchResult;
+import model.PageSearchResults;
+import model.SearchConfig;
+import model.SearchMetrics;
+import model.SharedContext;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -47,6 +68,14 @@ public class TestPageSearch {
         }});
     }
 
+    /**
+     * Closes the {@link PageSearch} instance after each test method, releasing its searcher and index.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        pageSearch.close();
+    }
+
     /**
      * Tests the ability of {@link PageSearch} to return a correct number of search results
      * when searching for a common phrase expected to be found across all indexed documents.
@@ -89,4 +118,401 @@ public class TestPageSearch {
         Collection<PageSearchResult> results = pageSearch.search("nonexistent phrase");
         assertTrue(results.isEmpty(), "Expected no matches for a nonexistent phrase.");
     }
+
+    /**
+     * Tests that a result identifies its page and paragraph, and that its text can still be loaded
+     * after the index changed since the search.
+     *
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testStructuredResultLoadsContentLazily() throws Exception {
+        PageSearchResult result = pageSearch.search("\"dog, cat, bird\"").iterator().next();
+        assertEquals("Article", result.getTitle());
+        assertEquals(2, result.getParagraph(), "Expected the third paragraph of the page.");
+        assertTrue(result.getScore() > 0);
+
+        // Change the index before the result is displayed
+        pageSearch.addPage(new Page("Copy", getClass().getResource("/examplePage2.txt").getPath(), false));
+        assertTrue(result.getContent().contains("dog, cat, bird"), "Expected the paragraph to be found again.");
+    }
+
+    /**
+     * Tests that results can be fetched page by page, that each page holds at most the page size,
+     * and that no result is repeated across pages.
+     *
+     * @throws Exception If an error occurs during the search operation.
+     */
+    @Test
+    void testPagedSearch() throws Exception {
+        // Seven paragraphs contain the word "paragraph", two of the pages say "paragraphs" in their first one
+        PageSearchResults results = pageSearch.search(pageSearch.compileQuery("paragraph"), true, 4);
+        Set<String> seen = new HashSet<>();
+        int pages = 0;
+        while (true) {
+            pages++;
+            assertTrue(results.getResults().size() <= 4, "Expected at most one page of results.");
+            for (PageSearchResult result : results.getResults()) {
+                assertTrue(seen.add(result.getFormattedContent()), "Expected no repeated results.");
+            }
+            if (!results.hasMore()) {
+                break;
+            }
+            results = pageSearch.searchNext(results);
+        }
+        assertEquals(7, seen.size(), "Expected all matching paragraphs across the pages.");
+        assertEquals(2, pages);
+        assertFalse(results.hasMore());
+    }
+
+    /**
+     * Tests that paragraphs of private pages are filtered out when private pages should not be searched,
+     * without removing the private pages from the pages map.
+     *
+     * @throws Exception If an error occurs during the search operation.
+     */
+    @Test
+    void testPrivatePagesFiltered() throws Exception {
+        Page blog = pageSearch.getPages().get("Blog");
+        blog.setPrivate(true);
+        pageSearch.addPage(blog);
+
+        assertEquals(2, pageSearch.search("Per aspera ad astra", false).size(), "Expected the private page to be filtered out.");
+        assertEquals(3, pageSearch.search("Per aspera ad astra", true).size(), "Expected the private page to be searched.");
+        assertTrue(pageSearch.getPages().containsKey("Blog"), "Expected the private page to stay in the pages map.");
+    }
+
+    /**
+     * Tests that a page added after construction can be found without rebuilding the {@link PageSearch},
+     * and that overwriting a page replaces its paragraphs in the index.
+     *
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testAddPageIncrementally() throws Exception {
+        URL dataPath = getClass().getResource("/examplePage1.txt");
+        pageSearch.addPage(new Page("Copy", dataPath.getPath(), false));
+        pageSearch.getPages().put("Copy", new Page("Copy", dataPath.getPath(), false));
+        assertEquals(2, pageSearch.search("\"dog, cat, bird\"").size(), "Expected the added page to be searchable.");
+
+        // Overwrite the copy with a page that does not contain the phrase
+        pageSearch.addPage(new Page("Copy", getClass().getResource("/examplePage2.txt").getPath(), false));
+        assertEquals(1, pageSearch.search("\"dog, cat, bird\"").size(), "Expected the old paragraphs to be replaced.");
+    }
+
+    /**
+     * Tests that a persistent index restores its pages after a restart and re-reads
+     * only a page whose file changed on disk.
+     *
+     * @param tempDir A temporary directory holding the index and a copy of a page file.
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testPersistentIndexRestoresAndUpdatesPages(@TempDir Path tempDir) throws Exception {
+        Path pageFile = tempDir.resolve("page.txt");
+        Files.copy(Paths.get(getClass().getResource("/examplePage1.txt").toURI()), pageFile);
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setIndexPath(tempDir.resolve("index").toString());
+
+        HashMap<String, Page> pages = new HashMap<>();
+        pages.put("Article", new Page("Article", pageFile.toString(), true));
+        new PageSearch(pages, searchConfig).close();
+
+        // Restart with no registered pages, the page should be restored from the index
+        HashMap<String, Page> restoredPages = new HashMap<>();
+        try (PageSearch restored = new PageSearch(restoredPages, searchConfig)) {
+            assertTrue(restoredPages.containsKey("Article"), "Expected the page to be restored from the index.");
+            assertTrue(restoredPages.get("Article").isPrivate(), "Expected the privacy of the page to be restored.");
+            assertEquals(1, restored.search("\"dog, cat, bird\"").size());
+        }
+
+        // Change the page file, the page should be indexed again on the next restart
+        Files.writeString(pageFile, "A new paragraph about exams.");
+        Files.setLastModifiedTime(pageFile, FileTime.fromMillis(System.currentTimeMillis() + 60000));
+        try (PageSearch updated = new PageSearch(new HashMap<>(), searchConfig)) {
+            assertTrue(updated.search("\"dog, cat, bird\"").isEmpty(), "Expected the old paragraphs to be removed.");
+            assertEquals(1, updated.search("exams").size(), "Expected the changed file to be indexed again.");
+        }
+    }
+
+    /**
+     * Tests that a constructor failing on a locked persistent index does not start the metrics reporter,
+     * and that the index opens once the other instance is closed.
+     *
+     * @param tempDir A temporary directory holding the index.
+     * @throws Exception If an error occurs while opening the index.
+     */
+    @Test
+    void testFailedConstructorReleasesResources(@TempDir Path tempDir) throws Exception {
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setAsyncStartup(false);
+        searchConfig.setIndexPath(tempDir.resolve("index").toString());
+
+        PageSearch owner = new PageSearch(new HashMap<>(), searchConfig);
+        searchConfig.setMetricsReportSeconds(60);
+        assertThrows(IOException.class, () -> new PageSearch(new HashMap<>(), searchConfig));
+        assertTrue(Thread.getAllStackTraces().keySet().stream()
+                        .noneMatch(thread -> thread.getName().equals("search-metrics") && thread.isAlive()),
+                "Expected the failed constructor not to start reporting.");
+        owner.close();
+        new PageSearch(new HashMap<>(), searchConfig).close();
+    }
+
+    /**
+     * Tests that a long paragraph is shown as a bounded snippet around the matched terms,
+     * with the matches marked and the cut text replaced by ellipses.
+     *
+     * @param tempDir A temporary directory holding the page file.
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testSnippetHighlightsMatch(@TempDir Path tempDir) throws Exception {
+        Path pageFile = tempDir.resolve("long.txt");
+        String filler = "Lorem ipsum dolor sit amet consectetur adipiscing elit. ".repeat(20);
+        Files.writeString(pageFile, filler + "The exam timetable is published online. " + filler);
+        pageSearch.addPage(new Page("Timetable", pageFile.toString(), false));
+
+        PageSearchResult result = pageSearch.search("\"exam timetable\"").iterator().next();
+        String snippet = result.getSnippet();
+        assertTrue(snippet.contains("**exam timetable**"), "Expected the matched phrase to be marked.");
+        assertTrue(snippet.startsWith("...") && snippet.endsWith("..."), "Expected the cut text to be marked.");
+        assertTrue(snippet.length() < result.getContent().length(), "Expected the snippet to be shorter than the paragraph.");
+    }
+
+    /**
+     * Tests that a paragraph found only through its page title is shown as a leading snippet of about
+     * the snippet length, not as the whole paragraph.
+     *
+     * @param tempDir A temporary directory holding the page file.
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testTitleOnlyMatchSnippetIsBounded(@TempDir Path tempDir) throws Exception {
+        Path pageFile = tempDir.resolve("long.txt");
+        Files.writeString(pageFile, "Lorem ipsum dolor sit amet consectetur adipiscing elit. ".repeat(40));
+        pageSearch.addPage(new Page("Graduation", pageFile.toString(), false));
+
+        PageSearchResult result = pageSearch.search("graduation").iterator().next();
+        String snippet = result.getSnippet();
+        assertEquals("Graduation", result.getTitle());
+        assertTrue(snippet.startsWith("Lorem ipsum"), "Expected the leading text of the paragraph.");
+        assertTrue(snippet.endsWith("..."), "Expected the cut text to be marked.");
+        assertTrue(snippet.length() < 400, "Expected the snippet to be about the snippet length.");
+    }
+
+    /**
+     * Tests that pages indexed in bulk on several threads are all searchable and replace
+     * indexed pages with the same title.
+     *
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testAddPagesInBulk() throws Exception {
+        pageSearch.addPages(List.of(
+                new Page("Copy", getClass().getResource("/examplePage1.txt").getPath(), false),
+                new Page("Blog", getClass().getResource("/examplePage1.txt").getPath(), false),
+                new Page("Notes", getClass().getResource("/examplePage3.txt").getPath(), false)));
+
+        Collection<PageSearchResult> results = pageSearch.search("\"dog, cat, bird\"");
+        Set<String> titles = new HashSet<>();
+        for (PageSearchResult result : results) {
+            titles.add(result.getTitle());
+        }
+        assertEquals(Set.of("Article", "Copy", "Blog"), titles, "Expected Blog to be replaced by the new page.");
+        Collection<PageSearchResult> blogResults = pageSearch.search("\"work in progress\"");
+        assertEquals(1, blogResults.size(), "Expected the old Blog paragraphs to be removed.");
+        assertEquals("Notes", blogResults.iterator().next().getTitle());
+    }
+
+    /**
+     * Tests that a batch with an unreadable page still indexes the other pages, and that the shared
+     * context registers exactly the pages that are searched.
+     *
+     * @param tempDir A temporary directory in which no page file exists.
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testAddPagesWithUnreadablePage(@TempDir Path tempDir) throws Exception {
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setAsyncStartup(false);
+        searchConfig.setIndexThreads(2);
+        SharedContext sharedContext = new SharedContext(searchConfig);
+        Page readable = new Page("Copy", getClass().getResource("/examplePage1.txt").getPath(), false);
+        Page missing = new Page("Missing", tempDir.resolve("missing.txt").toString(), false);
+
+        PageIndexingException exception = assertThrows(PageIndexingException.class,
+                () -> sharedContext.addPages(List.of(readable, missing)));
+        assertEquals(List.of(readable), exception.getIndexedPages());
+        assertEquals(Set.of("Copy"), sharedContext.getPages().keySet());
+
+        Set<String> titles = new HashSet<>();
+        for (PageSearchResult result : sharedContext.getPageSearch().search("paragraph")) {
+            titles.add(result.getTitle());
+        }
+        assertEquals(sharedContext.getPages().keySet(), titles, "Expected the index and the pages map to agree.");
+        sharedContext.close();
+    }
+
+    /**
+     * Tests that searching segment slices in parallel returns the same paragraphs, with the same
+     * scores, as searching the segments on the calling thread.
+     *
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testParallelSegmentSearch() throws Exception {
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setSearchThreads(2);
+        searchConfig.setSliceMaxDocs(1);
+        searchConfig.setSliceMaxSegments(1);
+        try (PageSearch parallel = new PageSearch(new HashMap<>(), searchConfig)) {
+            // Each page is added on its own, so the index holds one segment per page
+            parallel.addPage(new Page("Article", getClass().getResource("/examplePage1.txt").getPath(), false));
+            parallel.addPage(new Page("Webpage", getClass().getResource("/examplePage2.txt").getPath(), false));
+            parallel.addPage(new Page("Blog", getClass().getResource("/examplePage3.txt").getPath(), false));
+
+            Set<String> expected = new HashSet<>();
+            for (PageSearchResult result : pageSearch.search("paragraph")) {
+                expected.add(result.getTitle() + ":" + result.getParagraph() + ":" + result.getScore());
+            }
+            Set<String> actual = new HashSet<>();
+            for (PageSearchResult result : parallel.search("paragraph")) {
+                actual.add(result.getTitle() + ":" + result.getParagraph() + ":" + result.getScore());
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * Tests that collapsed search returns the best paragraph of each page once, counts the other
+     * matching paragraphs, and pages through the collapsed results.
+     *
+     * @throws Exception If an error occurs during the search operation.
+     */
+    @Test
+    void testCollapsedSearch() throws Exception {
+        PageSearchResults results = pageSearch.searchCollapsed(pageSearch.compileQuery("paragraph"), true, 2);
+        assertEquals(2, results.getResults().size());
+        assertTrue(results.hasMore());
+        PageSearchResults next = pageSearch.searchNext(results);
+        assertEquals(1, next.getResults().size());
+        assertFalse(next.hasMore());
+
+        Set<String> titles = new HashSet<>();
+        int matches = 0;
+        for (PageSearchResult result : List.of(results.getResults().get(0), results.getResults().get(1),
+                next.getResults().get(0))) {
+            assertTrue(titles.add(result.getTitle()), "Expected one result per page.");
+            matches += 1 + result.getAdditionalMatches();
+        }
+        assertEquals(Set.of("Article", "Webpage", "Blog"), titles);
+        assertEquals(7, matches, "Expected every matching paragraph to be counted.");
+        assertTrue(results.getResults().get(0).getScore() >= results.getResults().get(1).getScore());
+
+        // Paging one page at a time from the cursor returns the pages in the same order as one large page
+        List<String> expected = new ArrayList<>();
+        for (PageSearchResult result : pageSearch.searchCollapsed(pageSearch.compileQuery("paragraph"), true, 3).getResults()) {
+            expected.add(result.getTitle());
+        }
+        List<String> paged = new ArrayList<>();
+        PageSearchResults page = pageSearch.searchCollapsed(pageSearch.compileQuery("paragraph"), true, 1);
+        paged.add(page.getResults().get(0).getTitle());
+        while (page.hasMore()) {
+            page = pageSearch.searchNext(page);
+            paged.add(page.getResults().get(0).getTitle());
+        }
+        assertEquals(expected, paged);
+    }
+
+    /**
+     * Tests that a paragraph of a page whose title matches the query ranks above paragraphs that only
+     * mention the query in their text, and that the title boost and similarity can be set from a settings file.
+     *
+     * @param tempDir A temporary directory holding the page files and the settings file.
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testTitleMatchRanksFirst(@TempDir Path tempDir) throws Exception {
+        Path timetable = tempDir.resolve("timetable.txt");
+        Files.writeString(timetable, "The dates of every session are listed below, with their rooms and times.\n\n"
+                + "Check the dates again in the week before the session.");
+        Path notes = tempDir.resolve("notes.txt");
+        Files.writeString(notes, "Exam dates are announced on the exam page.");
+        Path settings = tempDir.resolve("search.properties");
+        Files.writeString(settings, "search.titleBoost=4\nsearch.similarity=classic\n");
+
+        Properties properties = new Properties();
+        properties.setProperty("search.config", settings.toString());
+        properties.setProperty("search.similarity", "bm25");
+        SearchConfig searchConfig = SearchConfig.fromProperties(properties);
+        assertEquals(4, searchConfig.getTitleBoost());
+        assertEquals("bm25", searchConfig.getSimilarity(), "Expected properties to override the settings file.");
+
+        try (PageSearch relevance = new PageSearch(new HashMap<>(Map.of(
+                "Exam Timetable", new Page("Exam Timetable", timetable.toString(), false),
+                "Notes", new Page("Notes", notes.toString(), false))), searchConfig)) {
+            List<PageSearchResult> results = relevance.search(relevance.compileQuery("exam dates"), true, 10).getResults();
+            assertEquals(3, results.size());
+            assertEquals("Exam Timetable", results.get(0).getTitle());
+        }
+    }
+
+    /**
+     * Tests that an index built in the background becomes ready after replaying the warm-up queries,
+     * so that the first user search for a warm-up query is answered from the cache.
+     *
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testWarmUpAtStartup() throws Exception {
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setAsyncStartup(true);
+        searchConfig.setWarmUpQueries(List.of("paragraph", "title:(invalid"));
+        searchConfig.setWarmUpPageSize(2);
+        try (PageSearch warmed = new PageSearch(new HashMap<>(Map.of(
+                "Article", new Page("Article", getClass().getResource("/examplePage1.txt").getPath(), false),
+                "Blog", new Page("Blog", getClass().getResource("/examplePage3.txt").getPath(), true))), searchConfig)) {
+            assertTrue(warmed.awaitReady(10000));
+            assertTrue(warmed.isReady());
+            assertEquals(null, warmed.getStartupError());
+            assertEquals(0, warmed.getMetrics().getSearches(), "Expected warm-up searches not to be counted.");
+            assertEquals(0, warmed.getMetrics().getHistogram(SearchMetrics.Stage.SCORE).getCount());
+            assertEquals(0, warmed.getResultCache().getMisses(), "Expected warm-up searches not to count as cache misses.");
+
+            long hits = warmed.getResultCache().getHits();
+            PageSearchResults results = warmed.searchCollapsed(warmed.compileQuery("paragraph"), false, 2);
+            assertEquals(hits + 1, warmed.getResultCache().getHits(), "Expected the warmed results to be cached.");
+            assertEquals("Article", results.getResults().get(0).getTitle());
+        }
+    }
+
+    /**
+     * Tests that a failed background startup leaves the index not ready, reports the error once, and still
+     * lets searches run over the pages that could be indexed instead of failing.
+     *
+     * @param tempDir A temporary directory holding the page files.
+     * @throws Exception If an error occurs during searching.
+     */
+    @Test
+    void testFailedStartupFallsBack(@TempDir Path tempDir) throws Exception {
+        Path page = tempDir.resolve("page.txt");
+        Files.writeString(page, "A readable paragraph.");
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setAsyncStartup(true);
+        searchConfig.setReadyTimeoutMillis(100);
+        try (PageSearch failed = new PageSearch(new HashMap<>(Map.of(
+                "Readable", new Page("Readable", page.toString(), false),
+                "Missing", new Page("Missing", tempDir.resolve("missing.txt").toString(), false))), searchConfig)) {
+            assertFalse(failed.awaitReady(10000));
+            assertFalse(failed.isReady());
+            assertNotNull(failed.getStartupError());
+            assertNotNull(failed.pollStartupError());
+            assertNull(failed.pollStartupError(), "Expected the startup error to be reported once.");
+
+            // The readable page was indexed despite the failure and is still searched
+            PageSearchResults results = failed.searchCollapsed(failed.compileQuery("paragraph"), true, 4);
+            assertEquals(1, results.getResults().size());
+            assertEquals("Readable", results.getResults().get(0).getTitle());
+        }
+    }
 }
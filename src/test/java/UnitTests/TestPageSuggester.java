@@ -0,0 +1,109 @@
+package UnitTests;
+
+import model.Page;
+import model.PageSearch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test suite for the {@link model.PageSuggester} class, focusing on query completions and spelling corrections.
+ */
+public class TestPageSuggester {
+    private PageSearch pageSearch; // The PageSearch whose suggester is tested
+
+    /**
+     * Sets up the testing environment with two public pages and one private page.
+     *
+     * @throws IOException If the pages cannot be indexed.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        HashMap<String, Page> pages = new HashMap<>();
+        pages.put("Article", new Page("Article", getClass().getResource("/examplePage1.txt").getPath(), false));
+        pages.put("Webpage", new Page("Webpage", getClass().getResource("/examplePage2.txt").getPath(), false));
+        pages.put("Blog", new Page("Blog", getClass().getResource("/examplePage3.txt").getPath(), true));
+        pageSearch = new PageSearch(pages);
+    }
+
+    /**
+     * Closes the {@link PageSearch} instance after each test method.
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        pageSearch.close();
+    }
+
+    /**
+     * Tests that prefixes are completed from page titles and paragraph terms, with titles first.
+     *
+     * @throws IOException If an error occurs during the lookup.
+     */
+    @Test
+    void testCompletions() throws IOException {
+        assertEquals(List.of("Webpage", "weight"), pageSearch.suggest("we", true, 5));
+        assertTrue(pageSearch.suggest("para", true, 5).contains("paragraph"));
+        assertTrue(pageSearch.suggest("xyz", true, 5).isEmpty());
+    }
+
+    /**
+     * Tests that guests are not offered titles or words that only occur in private pages.
+     *
+     * @throws IOException If an error occurs during the lookup.
+     */
+    @Test
+    void testPrivateWordsHiddenFromGuests() throws IOException {
+        assertTrue(pageSearch.suggest("b", true, 5).contains("Blog"));
+        assertFalse(pageSearch.suggest("b", false, 5).contains("Blog"), "Expected the private title to be hidden.");
+        assertFalse(pageSearch.suggest("prog", false, 5).contains("progress"), "Expected private words to be hidden.");
+        assertNull(pageSearch.didYouMean("progres", false), "Expected no correction to a private word.");
+        assertEquals("progress", pageSearch.didYouMean("progres", true));
+    }
+
+    /**
+     * Tests that misspelled words are corrected while operators and correct words are kept.
+     *
+     * @throws IOException If an error occurs during the lookup.
+     */
+    @Test
+    void testDidYouMean() throws IOException {
+        assertEquals("paragraph AND color", pageSearch.didYouMean("paragrph AND colr", false));
+        assertEquals("\"cat, bird\"", pageSearch.didYouMean("\"cat, brid\"", false));
+        assertNull(pageSearch.didYouMean("paragraph", false), "Expected no correction of a correct word.");
+    }
+
+    /**
+     * Tests that the suggestions are rebuilt after a page is added.
+     *
+     * @throws Exception If an error occurs while indexing or during the lookup.
+     */
+    @Test
+    void testRebuiltAfterAddPage() throws Exception {
+        pageSearch.addPage(new Page("Handbook", getClass().getResource("/examplePage1.txt").getPath(), false));
+        pageSearch.getSuggester().scheduleRebuild().get();
+        assertTrue(pageSearch.suggest("hand", false, 5).contains("Handbook"));
+    }
+
+    /**
+     * Tests that the counts of a segment are updated when one of its pages is replaced, so the words of the
+     * replaced page are no longer suggested.
+     *
+     * @throws Exception If an error occurs while indexing or during the lookup.
+     */
+    @Test
+    void testRebuiltAfterReplacePage() throws Exception {
+        pageSearch.addPage(new Page("Blog", getClass().getResource("/examplePage1.txt").getPath(), false));
+        pageSearch.getSuggester().scheduleRebuild().get();
+        assertTrue(pageSearch.suggest("b", false, 5).contains("Blog"), "Expected the replaced title to be public.");
+        assertFalse(pageSearch.suggest("prog", true, 5).contains("progress"), "Expected the old words to be gone.");
+    }
+}
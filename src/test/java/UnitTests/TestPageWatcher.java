@@ -0,0 +1,59 @@
+package UnitTests;
+
+import model.Page;
+import model.PageSearch;
+import model.PageWatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test suite for the {@link PageWatcher} class, focusing on reindexing pages whose files change on disk.
+ */
+public class TestPageWatcher {
+    private static final long TIMEOUT_MILLIS = 20000; // Maximum time to wait for a change to be reindexed
+
+    /**
+     * Tests that a changed page file is reindexed after the debounce period, and that pages
+     * whose files did not change keep their indexed paragraphs.
+     *
+     * @param tempDir A temporary directory holding the page files.
+     * @throws Exception If an error occurs during indexing, searching or writing the files.
+     */
+    @Test
+    void testChangedFileIsReindexed(@TempDir Path tempDir) throws Exception {
+        Path exams = tempDir.resolve("exams.txt");
+        Path library = tempDir.resolve("library.txt");
+        Files.writeString(exams, "Exams start in May.");
+        Files.writeString(library, "The library opens at nine.");
+        HashMap<String, Page> pages = new HashMap<>();
+        pages.put("Exams", new Page("Exams", exams.toString(), false));
+        pages.put("Library", new Page("Library", library.toString(), false));
+
+        try (PageSearch pageSearch = new PageSearch(pages);
+             PageWatcher watcher = new PageWatcher(pageSearch, 100)) {
+            for (Page page : pages.values()) {
+                watcher.watch(page);
+            }
+
+            Files.writeString(exams, "Exams start in");
+            Files.writeString(exams, "Exams start in December.");
+
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (pageSearch.search("december").isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, pageSearch.search("december").size(), "Expected the changed file to be reindexed.");
+            assertTrue(pageSearch.search("may").isEmpty(), "Expected the old paragraph to be replaced.");
+            assertEquals(1, pageSearch.search("library").size(), "Expected the unchanged page to be kept.");
+            assertNull(watcher.getLastError());
+        }
+    }
+}
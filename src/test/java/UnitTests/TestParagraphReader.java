@@ -0,0 +1,48 @@
+package UnitTests;
+
+import model.ParagraphReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test suite for the {@link ParagraphReader} class, focusing on how page files are split into paragraphs.
+ */
+public class TestParagraphReader {
+
+    /**
+     * Tests that paragraphs are separated by one or more empty lines and keep their line breaks.
+     *
+     * @throws IOException If an error occurs while reading.
+     */
+    @Test
+    void testParagraphsSplitOnEmptyLines() throws IOException {
+        String text = "\n\nFirst line\nsecond line\n\n\n\nSecond paragraph\n\nThird paragraph\n\n";
+        try (ParagraphReader reader = new ParagraphReader(new StringReader(text))) {
+            assertEquals("First line\nsecond line", reader.readParagraph());
+            assertEquals("Second paragraph", reader.readParagraph());
+            assertEquals("Third paragraph", reader.readParagraph());
+            assertNull(reader.readParagraph(), "Expected the end of the file.");
+        }
+    }
+
+    /**
+     * Tests that a file without empty lines is read as a single paragraph and an empty file as none.
+     *
+     * @throws IOException If an error occurs while reading.
+     */
+    @Test
+    void testSingleAndNoParagraphs() throws IOException {
+        try (ParagraphReader reader = new ParagraphReader(new StringReader("One\nparagraph"))) {
+            assertEquals("One\nparagraph", reader.readParagraph());
+            assertNull(reader.readParagraph());
+        }
+        try (ParagraphReader reader = new ParagraphReader(new StringReader(""))) {
+            assertNull(reader.readParagraph(), "Expected no paragraphs in an empty file.");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package UnitTests;
+
+import model.Page;
+import model.PageSearch;
+import model.SearchConfig;
+import model.SearchMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test suite for the {@link SearchMetrics} class, focusing on the histograms, the counters and the
+ * stages recorded by {@link PageSearch}.
+ */
+public class TestSearchMetrics {
+
+    /**
+     * Tests that searches are counted with their cache hits and zero-result rate, and that latencies
+     * are placed in power-of-two microsecond buckets.
+     */
+    @Test
+    void testCountersAndHistogram() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.recordSearch(3, false);
+        metrics.recordSearch(0, false);
+        metrics.recordSearch(3, true);
+        metrics.recordSearch(0, true);
+        assertEquals(4, metrics.getSearches());
+        assertEquals(2, metrics.getCacheHits());
+        assertEquals(2, metrics.getCacheMisses());
+        assertEquals(6, metrics.getResults());
+        assertEquals(0.5, metrics.getZeroResultRate());
+
+        // A stage that started 3 milliseconds ago lands in the bucket below 4096 microseconds
+        metrics.record(SearchMetrics.Stage.SCORE, System.nanoTime() - 3_000_000);
+        SearchMetrics.Histogram histogram = metrics.getHistogram(SearchMetrics.Stage.SCORE);
+        assertEquals(1, histogram.getCount());
+        assertEquals(4096, histogram.getPercentileMicros(0.5));
+        assertTrue(histogram.getMaxMicros() >= 3000);
+        assertEquals(0, metrics.getHistogram(SearchMetrics.Stage.LOAD).getCount());
+
+        String dump = metrics.dump();
+        assertTrue(dump.contains("zero-result rate: 50.0%"));
+        assertTrue(dump.contains("scoring: count 1"));
+        assertFalse(dump.contains("stored-field loading"), "Expected stages never recorded to be left out.");
+    }
+
+    /**
+     * Tests that a page search records the time spent in each stage, and counts a repeated query as a cache hit.
+     *
+     * @throws Exception If an error occurs during indexing or searching.
+     */
+    @Test
+    void testPageSearchRecordsStages() throws Exception {
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setAsyncStartup(false);
+        try (PageSearch pageSearch = new PageSearch(new HashMap<>(Map.of("Article",
+                new Page("Article", getClass().getResource("/examplePage1.txt").getPath(), false))), searchConfig)) {
+            SearchMetrics metrics = pageSearch.getMetrics();
+            assertEquals(1, metrics.getHistogram(SearchMetrics.Stage.INDEX).getCount());
+
+            pageSearch.searchCollapsed(pageSearch.compileQuery("paragraph"), true, 4).getResults().get(0).getSnippet();
+            pageSearch.searchCollapsed(pageSearch.compileQuery("paragraph"), true, 4);
+            pageSearch.searchCollapsed(pageSearch.compileQuery("Superman"), true, 4);
+
+            assertEquals(3, metrics.getHistogram(SearchMetrics.Stage.PARSE).getCount());
+            assertEquals(3, metrics.getHistogram(SearchMetrics.Stage.SEARCH).getCount());
+            assertEquals(2, metrics.getHistogram(SearchMetrics.Stage.SCORE).getCount());
+            assertEquals(1, metrics.getHistogram(SearchMetrics.Stage.SNIPPET).getCount());
+            assertEquals(1, metrics.getCacheHits());
+            assertEquals(1, metrics.getZeroResultSearches());
+        }
+    }
+}
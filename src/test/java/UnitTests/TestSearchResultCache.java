@@ -0,0 +1,87 @@
+package UnitTests;
+
+import model.PageSearchResult;
+import model.PageSearchResults;
+import model.SearchResultCache;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test suite for the {@link SearchResultCache} class, focusing on lookups, eviction and invalidation.
+ */
+public class TestSearchResultCache {
+    private final PageSearchResults results = new PageSearchResults(new MatchAllDocsQuery(), true,
+            List.of(new PageSearchResult("Title: Exams\nExam dates\n")), null, 4, 0, false);
+
+    /**
+     * Creates a query matching any of the given words.
+     *
+     * @param words The words of the query.
+     * @return the query
+     */
+    private static Query anyOf(String... words) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (String word : words) {
+            builder.add(new TermQuery(new Term("content", word)), BooleanClause.Occur.SHOULD);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Tests that equal queries built separately share an entry, that guests and authenticated
+     * users do not, and that hits and misses are counted.
+     */
+    @Test
+    void testKeyEqualityAndCounters() {
+        SearchResultCache cache = new SearchResultCache(10, 60);
+        cache.put(SearchResultCache.key(anyOf("exam", "dates"), true, 4), results, cache.getGeneration());
+
+        assertNotNull(cache.get(SearchResultCache.key(anyOf("dates", "exam"), true, 4)), "Expected equal queries to share an entry.");
+        assertNull(cache.get(SearchResultCache.key(anyOf("exam", "dates"), false, 4)), "Expected guests to use a separate entry.");
+        assertNull(cache.get(SearchResultCache.key(anyOf("exam", "dates"), true, 4, true)), "Expected collapsed results to use a separate entry.");
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Tests that the least recently used entry is evicted once the cache is full.
+     */
+    @Test
+    void testLeastRecentlyUsedEviction() {
+        SearchResultCache cache = new SearchResultCache(2, 60);
+        cache.put(SearchResultCache.key(anyOf("a"), true, 4), results, cache.getGeneration());
+        cache.put(SearchResultCache.key(anyOf("b"), true, 4), results, cache.getGeneration());
+        cache.get(SearchResultCache.key(anyOf("a"), true, 4));
+        cache.put(SearchResultCache.key(anyOf("c"), true, 4), results, cache.getGeneration());
+
+        assertNotNull(cache.get(SearchResultCache.key(anyOf("a"), true, 4)), "Expected the recently used entry to be kept.");
+        assertNull(cache.get(SearchResultCache.key(anyOf("b"), true, 4)), "Expected the least recently used entry to be evicted.");
+        assertEquals(2, cache.size());
+    }
+
+    /**
+     * Tests that invalidation removes all entries and discards results of searches that started before it.
+     */
+    @Test
+    void testInvalidation() {
+        SearchResultCache cache = new SearchResultCache(10, 60);
+        long generation = cache.getGeneration();
+        cache.put(SearchResultCache.key(anyOf("a"), true, 4), results, generation);
+        cache.invalidate();
+        cache.put(SearchResultCache.key(anyOf("b"), true, 4), results, generation);
+
+        assertNull(cache.get(SearchResultCache.key(anyOf("a"), true, 4)), "Expected the entry to be invalidated.");
+        assertNull(cache.get(SearchResultCache.key(anyOf("b"), true, 4)), "Expected results of a search that raced with invalidation to be dropped.");
+    }
+}